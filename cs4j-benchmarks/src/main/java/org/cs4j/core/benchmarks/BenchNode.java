@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.benchmarks;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.cs4j.core.collections.BucketHeap.BucketHeapElement;
+import org.cs4j.core.collections.RBTreeElement;
+import org.cs4j.core.collections.RBTreeNode;
+
+/**
+ * A minimal search node for the collection benchmarks.  It can live in
+ * every queue of the library at once.
+ *
+ * @author Matthew Hatem
+ */
+final class BenchNode implements BucketHeapElement, 
+	RBTreeElement<BenchNode, BenchNode> {
+
+  static final Comparator<BenchNode> F_COMPARATOR = new Comparator<BenchNode>() {
+    @Override
+    public int compare(BenchNode a, BenchNode b) {
+      if (a.f < b.f) return -1;
+      if (a.f > b.f) return 1;
+      if (a.g > b.g) return -1;
+      if (a.g < b.g) return 1;
+      return 0;
+    }
+  };
+
+  static final Comparator<BenchNode> D_COMPARATOR = new Comparator<BenchNode>() {
+    @Override
+    public int compare(BenchNode a, BenchNode b) {
+      if (a.d < b.d) return -1;
+      if (a.d > b.d) return 1;
+      return F_COMPARATOR.compare(a, b);
+    }
+  };
+
+  double f, g, d;
+  private final int[] index = new int[2];
+  private final int[] secondaryIndex = new int[2];
+  private final int[] binIndex = new int[2];
+  private RBTreeNode<BenchNode, BenchNode> node;
+
+  BenchNode() {
+    Arrays.fill(index, -1);
+  }
+
+  /**
+   * Creates nodes with integer f and g values typical of the 15-puzzle.
+   *
+   * @param n the number of nodes
+   * @param seed the random seed
+   * @return the nodes
+   */
+  static BenchNode[] create(int n, long seed) {
+    Random random = new Random(seed);
+    BenchNode[] nodes = new BenchNode[n];
+    for (int i = 0; i < n; i++) {
+      BenchNode node = new BenchNode();
+      node.f = 40 + random.nextInt(20);
+      node.g = random.nextInt((int)node.f);
+      node.d = node.f - node.g;
+      nodes[i] = node;
+    }
+    return nodes;
+  }
+
+  @Override
+  public void setIndex(int key, int index) {
+    this.index[key] = index;
+  }
+
+  @Override
+  public int getIndex(int key) {
+    return index[key];
+  }
+
+  @Override
+  public void setSecondaryIndex(int key, int index) {
+    secondaryIndex[key] = index;
+  }
+
+  @Override
+  public int getSecondaryIndex(int key) {
+    return secondaryIndex[key];
+  }
+
+  @Override
+  public void setBinIndex(int key, int index) {
+    binIndex[key] = index;
+  }
+
+  @Override
+  public int getBinIndex(int key) {
+    return binIndex[key];
+  }
+
+  @Override
+  public double getRank(int level) {
+    return (level == 0) ? f : g;
+  }
+
+  @Override
+  public RBTreeNode<BenchNode, BenchNode> getNode() {
+    return node;
+  }
+
+  @Override
+  public void setNode(RBTreeNode<BenchNode, BenchNode> node) {
+    this.node = node;
+  }
+
+}
@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.benchmarks;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.cs4j.core.PackedSearchDomain.Successors;
+import org.cs4j.core.collections.LongNodeMap;
+import org.cs4j.core.domains.FifteenPuzzle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.carrotsearch.hppc.LongObjectOpenHashMap;
+
+/**
+ * Benchmarks closed list maps keyed by packed 15-puzzle states: 
+ * LongNodeMap against HashMap with boxed keys and hppc.
+ *
+ * @author Matthew Hatem
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClosedListBenchmark {
+
+  @Param({"LongNodeMap", "HashMap", "hppc"})
+  public String map;
+
+  @Param({"100000"})
+  public int size;
+
+  private long[] keys;
+  private long[] misses;
+  private ClosedList filled;
+
+  @Setup
+  public void setup() {
+    // breadth-first order from a korf100 instance, as A* would insert them
+    FifteenPuzzle domain = Instances.fifteenPuzzle("12");
+    LongNodeMap<Boolean> seen = new LongNodeMap<>();
+    Successors successors = new Successors();
+    keys = new long[size];
+    misses = new long[size];
+    keys[0] = domain.pack(domain.initialState());
+    seen.put(keys[0], Boolean.TRUE);
+    int n = 1;
+    for (int i = 0; n < size; i++) {
+      domain.expand(keys[i], successors);
+      for (int j = 0; j < successors.size() && n < size; j++) {
+        long child = successors.getPacked(j);
+        if (seen.get(child) == null) {
+          seen.put(child, Boolean.TRUE);
+          keys[n++] = child;
+        }
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      // a repeated tile, so never a valid state
+      misses[i] = keys[i] ^ 1;
+    }
+    filled = create();
+    for (long key : keys)
+      filled.put(key, this);
+  }
+
+  @Benchmark
+  public void put(Blackhole bh) {
+    ClosedList list = create();
+    for (long key : keys)
+      list.put(key, this);
+    bh.consume(list);
+  }
+
+  @Benchmark
+  public void getHit(Blackhole bh) {
+    for (long key : keys)
+      bh.consume(filled.get(key));
+  }
+
+  @Benchmark
+  public void getMiss(Blackhole bh) {
+    for (long key : misses)
+      bh.consume(filled.get(key));
+  }
+
+  private ClosedList create() {
+    switch (map) {
+    case "LongNodeMap":
+      return new ClosedList() {
+        final LongNodeMap<Object> m = new LongNodeMap<>();
+        public void put(long key, Object value) { m.put(key, value); }
+        public Object get(long key) { return m.get(key); }
+      };
+    case "HashMap":
+      return new ClosedList() {
+        final HashMap<Long, Object> m = new HashMap<>();
+        public void put(long key, Object value) { m.put(key, value); }
+        public Object get(long key) { return m.get(key); }
+      };
+    case "hppc":
+      return new ClosedList() {
+        final LongObjectOpenHashMap<Object> m = 
+            new LongObjectOpenHashMap<>();
+        public void put(long key, Object value) { m.put(key, value); }
+        public Object get(long key) { return m.get(key); }
+      };
+    default:
+      throw new IllegalArgumentException(map);
+    }
+  }
+
+  /*
+   * Each trial uses one implementation, so calls stay monomorphic.
+   */
+  private interface ClosedList {
+    void put(long key, Object value);
+    Object get(long key);
+  }
+
+}
@@ -0,0 +1,171 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cs4j.core.PackedSearchDomain.Successors;
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchDomain.Operator;
+import org.cs4j.core.collections.HeuristicCache;
+import org.cs4j.core.domains.FifteenPuzzle;
+import org.cs4j.core.domains.Pancakes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the per-node domain operations.  Each invocation runs the
+ * operation on every state of a fixed random walk; scores are per state.
+ * The cached variants unpack through a heuristic cache that already holds
+ * every state of the walk, which is the only path that consults it.
+ *
+ * @author Matthew Hatem
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainBenchmark {
+
+  private static final int STATES = 1024;
+
+  private FifteenPuzzle tiles;
+  private FifteenPuzzle cachedTiles;
+  private SearchDomain.State[] tileStates;
+  private long[] tilePacked;
+  private Pancakes pancakes;
+  private Pancakes cachedPancakes;
+  private SearchDomain.State[] pancakeStates;
+  private long[] pancakePacked;
+  private Successors successors = new Successors();
+
+  @Setup
+  public void setup() {
+    tiles = Instances.fifteenPuzzle("12");
+    tileStates = Instances.randomWalk(tiles, STATES, 42);
+    tilePacked = pack(tiles, tileStates);
+    pancakes = Instances.pancakes(16, 42);
+    pancakeStates = Instances.randomWalk(pancakes, STATES, 42);
+    pancakePacked = pack(pancakes, pancakeStates);
+    cachedTiles = Instances.fifteenPuzzle("12");
+    cachedTiles.setHeuristicCache(new HeuristicCache(4 * STATES));
+    warm(cachedTiles, tilePacked);
+    cachedPancakes = Instances.pancakes(16, 42);
+    cachedPancakes.setHeuristicCache(new HeuristicCache(4 * STATES));
+    warm(cachedPancakes, pancakePacked);
+  }
+  
+  private static void warm(SearchDomain domain, long[] packed) {
+    for (long p : packed)
+      domain.unpack(p);
+  }
+
+  private static long[] pack(SearchDomain domain, SearchDomain.State[] states) {
+    long[] packed = new long[states.length];
+    for (int i = 0; i < states.length; i++)
+      packed[i] = domain.pack(states[i]);
+    return packed;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(STATES)
+  public void fifteenPuzzleApplyOperator(Blackhole bh) {
+    applyAll(tiles, tileStates, bh);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(STATES)
+  public void fifteenPuzzlePack(Blackhole bh) {
+    for (SearchDomain.State s : tileStates)
+      bh.consume(tiles.pack(s));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(STATES)
+  public void fifteenPuzzleUnpack(Blackhole bh) {
+    for (long p : tilePacked)
+      bh.consume(tiles.unpack(p));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(STATES)
+  public void fifteenPuzzleUnpackCached(Blackhole bh) {
+    for (long p : tilePacked)
+      bh.consume(cachedTiles.unpack(p));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(STATES)
+  public void fifteenPuzzleExpandPacked(Blackhole bh) {
+    for (long p : tilePacked)
+      bh.consume(tiles.expand(p, successors));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(STATES)
+  public void pancakesApplyOperator(Blackhole bh) {
+    applyAll(pancakes, pancakeStates, bh);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(STATES)
+  public void pancakesUnpack(Blackhole bh) {
+    for (long p : pancakePacked)
+      bh.consume(pancakes.unpack(p));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(STATES)
+  public void pancakesUnpackCached(Blackhole bh) {
+    for (long p : pancakePacked)
+      bh.consume(cachedPancakes.unpack(p));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(STATES)
+  public void pancakesExpandPacked(Blackhole bh) {
+    for (long p : pancakePacked)
+      bh.consume(pancakes.expand(p, successors));
+  }
+
+  /*
+   * Generates all children of every state, as a node expansion does.
+   */
+  private static void applyAll(SearchDomain domain, 
+      SearchDomain.State[] states, Blackhole bh) {
+    for (SearchDomain.State s : states) {
+      int n = domain.getNumOperators(s);
+      for (int i = 0; i < n; i++) {
+        Operator op = domain.getOperator(s, i);
+        bh.consume(domain.applyOperator(s, op));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cs4j.core.collections.BinHeap;
+import org.cs4j.core.collections.BucketHeap;
+import org.cs4j.core.collections.DaryHeap;
+import org.cs4j.core.collections.QuantizedBucketHeap;
+import org.cs4j.core.collections.SearchQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the open list heaps.
+ *
+ * @author Matthew Hatem
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeapBenchmark {
+
+  @Param({"BIN", "DARY2", "DARY4", "DARY8", "BUCKET", "QUANTIZED"})
+  public String heap;
+
+  @Param({"10000"})
+  public int size;
+
+  private BenchNode[] nodes;
+  private double[] f;
+  private SearchQueue<BenchNode> queue;
+
+  @Setup
+  public void setup() {
+    nodes = BenchNode.create(size, 42);
+    f = new double[size];
+    for (int i = 0; i < size; i++)
+      f[i] = nodes[i].f;
+    switch (heap) {
+    case "BIN":
+      queue = new BinHeap<>(BenchNode.F_COMPARATOR, 0);
+      break;
+    case "DARY2":
+    case "DARY4":
+    case "DARY8":
+      queue = new DaryHeap<>(heap.charAt(4) - '0', 0);
+      break;
+    case "BUCKET":
+      queue = new BucketHeap<>(100, 0);
+      break;
+    case "QUANTIZED":
+      queue = new QuantizedBucketHeap<>(0);
+      break;
+    default:
+      throw new IllegalArgumentException(heap);
+    }
+  }
+
+  /**
+   * Adds every node and polls them all.
+   */
+  @Benchmark
+  public void addPoll(Blackhole bh) {
+    queue.clear();
+    for (BenchNode n : nodes)
+      queue.add(n);
+    while (!queue.isEmpty())
+      bh.consume(queue.poll());
+  }
+
+  /**
+   * Adds every node, lowers f of every other node as A* does when it
+   * finds a cheaper path, and polls them all.
+   */
+  @Benchmark
+  public void addUpdatePoll(Blackhole bh) {
+    queue.clear();
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i].f = f[i];
+      queue.add(nodes[i]);
+    }
+    for (int i = 0; i < nodes.length; i += 2) {
+      nodes[i].f -= 2;
+      queue.update(nodes[i]);
+    }
+    while (!queue.isEmpty())
+      bh.consume(queue.poll());
+  }
+
+}
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.util.Random;
+
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.domains.FifteenPuzzle;
+import org.cs4j.core.domains.Pancakes;
+
+/**
+ * Problem instances shared by the benchmarks.  The korf100 instances are
+ * read from the directory named by the cs4j.korf100 system property of the
+ * forked benchmark JVM, which defaults to the copy in the parent project.
+ *
+ * @author Matthew Hatem
+ */
+final class Instances {
+
+  private static final String KORF100 = 
+      System.getProperty("cs4j.korf100", "../input/fifteenpuzzle/korf100");
+
+  private Instances() {
+  }
+
+  static FifteenPuzzle fifteenPuzzle(String instance) {
+    try {
+      File file = new File(KORF100, instance);
+      return new FifteenPuzzle(new FileInputStream(file));
+    }
+    catch (FileNotFoundException e) {
+      throw new IllegalStateException(
+          "Set -Dcs4j.korf100 to the korf100 directory", e);
+    }
+  }
+
+  static Pancakes pancakes(int n, long seed) {
+    Random random = new Random(seed);
+    int[] cakes = new int[n];
+    for (int i = 0; i < n; i++) {
+      int j = random.nextInt(i + 1);
+      cakes[i] = cakes[j];
+      cakes[j] = i;
+    }
+    StringBuilder sb = new StringBuilder().append(n).append('\n');
+    for (int i = 0; i < n; i++)
+      sb.append(cakes[i]).append(i < n - 1 ? " " : "\n");
+    return new Pancakes(new ByteArrayInputStream(sb.toString().getBytes()), 
+        Pancakes.COST_FUNCTION.UNIT);
+  }
+
+  /**
+   * Returns the states along a random walk from the initial state.
+   */
+  static State[] randomWalk(SearchDomain domain, int n, long seed) {
+    Random random = new Random(seed);
+    State[] states = new State[n];
+    State state = domain.initialState();
+    for (int i = 0; i < n; i++) {
+      states[i] = state;
+      int op = random.nextInt(domain.getNumOperators(state));
+      state = domain.applyOperator(state, domain.getOperator(state, op));
+    }
+    return states;
+  }
+
+}
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cs4j.core.SearchAlgorithm;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.algorithms.Astar;
+import org.cs4j.core.algorithms.EES;
+import org.cs4j.core.algorithms.IDAstar;
+import org.cs4j.core.domains.FifteenPuzzle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end benchmarks of the search algorithms on a fixed subset of
+ * the korf100 instances that each solve in well under a second.
+ *
+ * @author Matthew Hatem
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SearchBenchmark {
+
+  @Param({"Astar", "IDAstar", "EES"})
+  public String algorithm;
+
+  @Param({"12", "42", "55", "79", "97"})
+  public String instance;
+
+  private FifteenPuzzle domain;
+
+  @Setup
+  public void setup() {
+    domain = Instances.fifteenPuzzle(instance);
+  }
+
+  @Benchmark
+  public SearchResult search() {
+    // the algorithms keep their open and closed lists between searches
+    SearchAlgorithm algo;
+    switch (algorithm) {
+    case "Astar":
+      algo = new Astar();
+      break;
+    case "IDAstar":
+      algo = new IDAstar();
+      break;
+    case "EES":
+      algo = new EES(2);
+      break;
+    default:
+      throw new IllegalArgumentException(algorithm);
+    }
+    return algo.search(domain);
+  }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.benchmarks;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import org.cs4j.core.collections.GEQueue;
+import org.cs4j.core.collections.RBTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the red-black tree and the GEQueue used for the open and
+ * focal lists of EES.
+ *
+ * @author Matthew Hatem
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBenchmark {
+
+  private static final int FOCAL_ID = 1;
+  private static final double WEIGHT = 1.1;
+
+  @Param({"10000"})
+  public int size;
+
+  private BenchNode[] nodes;
+
+  @Setup
+  public void setup() {
+    nodes = BenchNode.create(size, 42);
+  }
+
+  /**
+   * Inserts every node into a tree and polls them all.
+   */
+  @Benchmark
+  public void rbtreeInsertPoll(Blackhole bh) {
+    RBTree<BenchNode, BenchNode> tree = 
+        new RBTree<>(BenchNode.F_COMPARATOR, BenchNode.F_COMPARATOR);
+    for (BenchNode n : nodes)
+      tree.insert(n, n);
+    BenchNode n;
+    while ((n = tree.poll()) != null)
+      bh.consume(n);
+  }
+
+  /**
+   * Inserts every node and removes them in insertion order.
+   */
+  @Benchmark
+  public void rbtreeInsertDelete() {
+    RBTree<BenchNode, BenchNode> tree = 
+        new RBTree<>(BenchNode.F_COMPARATOR, BenchNode.F_COMPARATOR);
+    for (BenchNode n : nodes)
+      tree.insert(n, n);
+    for (BenchNode n : nodes)
+      tree.delete(n);
+  }
+
+  /**
+   * Adds every node and drains the queue through focal, maintaining focal
+   * as EES does when the best f changes.
+   */
+  @Benchmark
+  public void gequeueAddPollFocal(Blackhole bh) {
+    GEQueue<BenchNode> queue = new GEQueue<>(BenchNode.F_COMPARATOR, 
+        new WithinWeight(), BenchNode.D_COMPARATOR, FOCAL_ID);
+    BenchNode best = nodes[0];
+    queue.add(best, best);
+    queue.updateFocal(null, best, 0);
+    for (int i = 1; i < nodes.length; i++)
+      queue.add(nodes[i], queue.peekOpen());
+    while (!queue.isEmpty()) {
+      BenchNode oldBest = queue.peekOpen();
+      BenchNode n = (queue.peekFocal() != null) ? 
+          queue.pollFocal() : queue.pollOpen();
+      bh.consume(n);
+      BenchNode newBest = queue.peekOpen();
+      if (newBest != null) {
+        int change = Double.compare(newBest.f, oldBest.f);
+        queue.updateFocal(oldBest, newBest, change);
+      }
+    }
+  }
+
+  private static final class WithinWeight implements Comparator<BenchNode> {
+    @Override
+    public int compare(BenchNode a, BenchNode b) {
+      if (a.f < WEIGHT*b.f) return -1;
+      if (a.f > WEIGHT*b.f) return 1;
+      return 0;
+    }
+  }
+
+}
@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core;
+
+/**
+ * An optional extension of the search domain interface for domains that
+ * can be searched backward from a single goal state.  Every operator must
+ * be reversible with Operator.reverse, so the predecessors of a state are
+ * found by applying its operators, and the reverse heuristic estimates the
+ * cost of reaching a state from the initial state.
+ *
+ * @author Matthew Hatem
+ */
+public interface BidirectionalSearchDomain extends SearchDomain {
+
+  /**
+   * Returns the goal state.
+   *
+   * @return the goal state
+   */
+  public State goalState();
+
+  /**
+   * Returns an admissible estimate of the cost of reaching the specified
+   * state from the initial state.
+   *
+   * @param state the state
+   * @return the reverse heuristic estimate
+   */
+  public double getReverseH(State state);
+
+}
@@ -0,0 +1,52 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core;
+
+import org.cs4j.core.collections.HeuristicCache;
+
+/**
+ * An optional extension of the search domain interface for domains that
+ * can look up heuristic estimates in a cache instead of computing them
+ * from scratch.  Searches report the cache hits and misses they caused.
+ *
+ * Domains consult the cache only where they would otherwise compute the
+ * estimates from scratch, which is when a state is unpacked.  Applying an
+ * operator in place or expanding a packed state updates the parent's
+ * estimates incrementally, which is cheaper than a lookup.  Therefore
+ * searches that rely on those paths, such as Astar and EES on packed
+ * domains, IDAstar and RBFS, never hit the cache.  Searches that unpack
+ * the nodes they expand, such as HDAstar, ARAstar, MM and EPEAstar, do.
+ *
+ * @author Matthew Hatem
+ */
+public interface CachingSearchDomain extends SearchDomain {
+
+  /**
+   * Sets the heuristic cache, or null to compute every estimate.
+   *
+   * @param cache the heuristic cache
+   */
+  public void setHeuristicCache(HeuristicCache cache);
+
+  /**
+   * Returns the heuristic cache or null.
+   *
+   * @return the heuristic cache
+   */
+  public HeuristicCache getHeuristicCache();
+
+}
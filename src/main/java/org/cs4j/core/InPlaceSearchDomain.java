@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core;
+
+/**
+ * An optional extension of the search domain interface for domains that
+ * can modify a state in place and undo the modification.  Depth-first
+ * algorithms use it to walk the search tree without allocating a new
+ * state for every generated node.
+ *
+ * @author Matthew Hatem
+ */
+public interface InPlaceSearchDomain extends SearchDomain {
+
+  /**
+   * Applies the specified operator to the specified state, modifying the
+   * state in place.
+   *
+   * @param state the state
+   * @param op the operator
+   * @return a token that undoes the operation
+   */
+  public int apply(State state, Operator op);
+
+  /**
+   * Undoes an operation previously applied with apply, restoring the
+   * specified state to its value prior to that operation.  Operations
+   * must be undone in the reverse order they were applied.
+   *
+   * @param state the state
+   * @param token the token returned by apply
+   */
+  public void undo(State state, int token);
+
+}
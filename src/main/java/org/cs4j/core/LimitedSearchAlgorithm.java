@@ -0,0 +1,36 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core;
+
+/**
+ * An optional extension of the search algorithm interface for algorithms
+ * that can be stopped by resource limits or cancellation.
+ *
+ * @author Matthew Hatem
+ */
+public interface LimitedSearchAlgorithm extends SearchAlgorithm {
+
+  /**
+   * Performs a search that stops when it reaches one of the limits.
+   *
+   * @param domain the search domain
+   * @param limits the limits of the search
+   * @return search results, with the reason the search stopped
+   */
+  public SearchResult search(SearchDomain domain, SearchLimits limits);
+
+}
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core;
+
+import java.util.Arrays;
+
+/**
+ * An optional extension of the search domain interface for domains that
+ * can generate successors directly from packed states.  Best-first
+ * algorithms use it to expand nodes without unpacking them into states.
+ *
+ * @author Matthew Hatem
+ */
+public interface PackedSearchDomain extends SearchDomain {
+
+  /**
+   * Returns true if the specified packed state is the goal state.
+   *
+   * @param packed the packed state
+   * @return true if the packed state is a goal state, false otherwise
+   */
+  public boolean isGoal(long packed);
+
+  /**
+   * Generates the successors of the specified packed state into the
+   * specified buffer, which is cleared first.  Successors are generated in
+   * the order of getOperator.
+   *
+   * @param packed the packed state
+   * @param successors the buffer that receives the successors
+   * @return the number of successors
+   */
+  public int expand(long packed, Successors successors);
+
+  /**
+   * A reusable buffer of successors.  For each successor it holds the
+   * packed state, the edge cost, the change in the heuristic and distance
+   * estimates relative to the parent, the operator and its reverse.
+   */
+  public static final class Successors {
+
+    private int size;
+    private long[] packed = new long[0];
+    private double[] cost = new double[0];
+    private double[] dh = new double[0];
+    private double[] dd = new double[0];
+    private Operator[] op = new Operator[0];
+    private Operator[] pop = new Operator[0];
+
+    /**
+     * Removes all successors.
+     */
+    public void clear() {
+      size = 0;
+    }
+
+    /**
+     * Adds a successor.
+     *
+     * @param packed the packed state
+     * @param cost the edge cost
+     * @param dh the change in the heuristic estimate
+     * @param dd the change in the distance estimate
+     * @param op the operator
+     * @param pop the reverse operator
+     */
+    public void add(long packed, double cost, double dh, double dd,
+        Operator op, Operator pop) {
+      if (size == this.packed.length)
+        grow();
+      this.packed[size] = packed;
+      this.cost[size] = cost;
+      this.dh[size] = dh;
+      this.dd[size] = dd;
+      this.op[size] = op;
+      this.pop[size] = pop;
+      size++;
+    }
+
+    public int size() {
+      return size;
+    }
+
+    public long getPacked(int i) {
+      return packed[i];
+    }
+
+    public double getCost(int i) {
+      return cost[i];
+    }
+
+    public double getDeltaH(int i) {
+      return dh[i];
+    }
+
+    public double getDeltaD(int i) {
+      return dd[i];
+    }
+
+    public Operator getOperator(int i) {
+      return op[i];
+    }
+
+    public Operator getReverseOperator(int i) {
+      return pop[i];
+    }
+
+    private void grow() {
+      int capacity = Math.max(4, size << 1);
+      packed = Arrays.copyOf(packed, capacity);
+      cost = Arrays.copyOf(cost, capacity);
+      dh = Arrays.copyOf(dh, capacity);
+      dd = Arrays.copyOf(dd, capacity);
+      op = Arrays.copyOf(op, capacity);
+      pop = Arrays.copyOf(pop, capacity);
+    }
+
+  }
+
+}
@@ -0,0 +1,48 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core;
+
+import java.util.List;
+
+/**
+ * An optional extension of the search domain interface for domains that
+ * can select operators by the change in f they cause, without generating
+ * the children.  The change in f of an operator is its cost plus the
+ * change in the heuristic estimate.  Partial expansion searches use it to
+ * generate only the children of a node that belong to the current f layer.
+ *
+ * @author Matthew Hatem
+ */
+public interface PartialExpansionSearchDomain extends SearchDomain {
+
+  /**
+   * Adds the operators of the specified state whose change in f is greater
+   * than the lower limit and no greater than the upper limit, skipping the
+   * operator that returns to the parent.
+   *
+   * @param state the state
+   * @param pop the operator to skip, or null
+   * @param lower the exclusive lower limit on the change in f
+   * @param upper the inclusive upper limit on the change in f
+   * @param selected the list the operators are added to
+   * @return the least change in f greater than the upper limit, or
+   *   Double.MAX_VALUE if there is none
+   */
+  public double selectOperators(State state, Operator pop, double lower, 
+      double upper, List<Operator> selected);
+
+}
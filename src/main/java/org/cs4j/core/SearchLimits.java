@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits on the resources a search may use.  A search that reaches a
+ * limit stops and reports the limit as its status.  Limits are checked
+ * periodically, so a search may overrun a limit by a small number of
+ * expansions.  A limit of 0 means no limit.
+ *
+ * The limits also act as a cancellation token: any thread may cancel a
+ * running search.  Interrupting the searching thread cancels it as well.
+ *
+ * @author Matthew Hatem
+ */
+public final class SearchLimits {
+
+  private long timeLimitMillis;
+  private long cpuTimeLimitMillis;
+  private long maxExpanded;
+  private long maxMemoryBytes;
+  private volatile boolean cancelled;
+
+  /**
+   * Sets the wall clock time limit.
+   *
+   * @param limit the time limit
+   * @param unit the unit of the time limit
+   */
+  public void setTimeLimit(long limit, TimeUnit unit) {
+    this.timeLimitMillis = unit.toMillis(limit);
+  }
+
+  public long getTimeLimitMillis() {
+    return timeLimitMillis;
+  }
+
+  /**
+   * Sets the CPU time limit of the searching thread.
+   *
+   * @param limit the CPU time limit
+   * @param unit the unit of the CPU time limit
+   */
+  public void setCpuTimeLimit(long limit, TimeUnit unit) {
+    this.cpuTimeLimitMillis = unit.toMillis(limit);
+  }
+
+  public long getCpuTimeLimitMillis() {
+    return cpuTimeLimitMillis;
+  }
+
+  /**
+   * Sets the maximum number of expansions.
+   *
+   * @param maxExpanded the maximum number of expansions
+   */
+  public void setMaxExpanded(long maxExpanded) {
+    this.maxExpanded = maxExpanded;
+  }
+
+  public long getMaxExpanded() {
+    return maxExpanded;
+  }
+
+  /**
+   * Sets the maximum heap in use by the whole JVM.
+   *
+   * @param megabytes the maximum heap in use in megabytes
+   */
+  public void setMaxMemory(int megabytes) {
+    this.maxMemoryBytes = megabytes * 1024L * 1024L;
+  }
+
+  public long getMaxMemoryBytes() {
+    return maxMemoryBytes;
+  }
+
+  /**
+   * Asks the search to stop at its next check.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+}
@@ -0,0 +1,243 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core;
+
+import java.util.Arrays;
+
+import org.cs4j.core.collections.LongNodeMap;
+import org.cs4j.core.collections.WideNodeMap;
+
+/**
+ * Detailed measurements of a search: the time spent in each phase of an
+ * expansion, the largest open list, the state of the closed list, the
+ * number of expansions in each f layer and the expansion rate over time.
+ *
+ * Metrics are only collected when the cs4j.metrics system property is
+ * true.  Algorithms guard every call with ENABLED, a constant the JIT
+ * folds away, so disabled metrics cost nothing.  Metrics are collected by
+ * the searching thread and are not thread safe.
+ *
+ * @author Matthew Hatem
+ */
+public final class SearchMetrics {
+
+  public static final boolean ENABLED = Boolean.getBoolean("cs4j.metrics");
+
+  /**
+   * The phases of an expansion.  The time between two laps is charged to
+   * the phase of the second lap.
+   */
+  public enum Phase {
+    /** removing the next node from the open list */
+    SELECT,
+    /** recovering the state of a node */
+    UNPACK,
+    /** testing for the goal */
+    GOAL_TEST,
+    /** generating successors and evaluating their heuristic */
+    GENERATE,
+    /** looking up duplicates in the closed list */
+    DUPLICATES,
+    /** adding and updating nodes in the open and closed lists */
+    INSERT
+  };
+
+  private static final int MAX_LAYERS = 1 << 16;
+  private static final int SAMPLE_CHECK = 1024;
+  private static final long SAMPLE_INTERVAL_NANOS = 100 * 1000000L;
+
+  private final long[] phaseNanos = new long[Phase.values().length];
+  private final long startNanos;
+  private long lapNanos;
+  private int maxOpenSize;
+  private int closedSize;
+  private int closedCapacity;
+  private double meanProbeLength;
+  private int maxProbeLength;
+  private long[] layers = new long[64];
+  private int numLayers;
+  private long[] sampleMillis = new long[16];
+  private long[] sampleExpanded = new long[16];
+  private int numSamples;
+  private long lastSampleNanos;
+  private int countdown = SAMPLE_CHECK;
+
+  public SearchMetrics() {
+    startNanos = System.nanoTime();
+    lapNanos = startNanos;
+    lastSampleNanos = startNanos;
+  }
+
+  /**
+   * Charges the time since the last lap to the specified phase.
+   *
+   * @param phase the phase that just ended
+   */
+  public void lap(Phase phase) {
+    long now = System.nanoTime();
+    phaseNanos[phase.ordinal()] += now - lapNanos;
+    lapNanos = now;
+  }
+
+  /**
+   * Records the size of the open list.
+   *
+   * @param size the size of the open list
+   */
+  public void openSize(int size) {
+    if (size > maxOpenSize)
+      maxOpenSize = size;
+  }
+
+  /**
+   * Records an expansion and takes a rate sample now and then.
+   *
+   * @param f the f value of the expanded node
+   * @param expanded the number of nodes expanded so far
+   */
+  public void expanded(double f, long expanded) {
+    int layer = (int)Math.min(Math.max(f, 0), MAX_LAYERS - 1);
+    if (layer >= layers.length)
+      layers = Arrays.copyOf(layers, Math.max(layer + 1, layers.length << 1));
+    layers[layer]++;
+    if (layer >= numLayers)
+      numLayers = layer + 1;
+    if (--countdown > 0)
+      return;
+    countdown = SAMPLE_CHECK;
+    long now = System.nanoTime();
+    if (now - lastSampleNanos >= SAMPLE_INTERVAL_NANOS) {
+      lastSampleNanos = now;
+      if (numSamples == sampleMillis.length) {
+        sampleMillis = Arrays.copyOf(sampleMillis, numSamples << 1);
+        sampleExpanded = Arrays.copyOf(sampleExpanded, numSamples << 1);
+      }
+      sampleMillis[numSamples] = (now - startNanos) / 1000000L;
+      sampleExpanded[numSamples] = expanded;
+      numSamples++;
+    }
+  }
+
+  /**
+   * Records the state of the closed list.  This scans the whole table.
+   *
+   * @param closed the closed list
+   */
+  public void closed(LongNodeMap<?> closed) {
+    closed(closed.size(), closed.capacity(), closed.meanProbeLength(), 
+        closed.maxProbeLength());
+  }
+
+  /**
+   * Records the state of the closed list.  This scans the whole table.
+   *
+   * @param closed the closed list
+   */
+  public void closed(WideNodeMap<?> closed) {
+    closed(closed.size(), closed.capacity(), closed.meanProbeLength(), 
+        closed.maxProbeLength());
+  }
+
+  private void closed(int size, int capacity, double mean, int max) {
+    closedSize = size;
+    closedCapacity = capacity;
+    meanProbeLength = mean;
+    maxProbeLength = max;
+  }
+
+  /**
+   * Returns the time charged to the specified phase in nanoseconds.
+   *
+   * @param phase the phase
+   * @return the time in nanoseconds
+   */
+  public long getPhaseNanos(Phase phase) {
+    return phaseNanos[phase.ordinal()];
+  }
+
+  public int getMaxOpenSize() {
+    return maxOpenSize;
+  }
+
+  public int getClosedSize() {
+    return closedSize;
+  }
+
+  /**
+   * Returns the fraction of the closed list table in use.
+   *
+   * @return the load factor, or 0 if not recorded
+   */
+  public double getClosedLoadFactor() {
+    return (closedCapacity == 0) ? 0 : (double)closedSize / closedCapacity;
+  }
+
+  public double getMeanProbeLength() {
+    return meanProbeLength;
+  }
+
+  public int getMaxProbeLength() {
+    return maxProbeLength;
+  }
+
+  /**
+   * Returns the number of expansions in each f layer, indexed by f rounded
+   * down to an integer.
+   *
+   * @return the expansions by layer
+   */
+  public long[] getExpandedByLayer() {
+    return Arrays.copyOf(layers, numLayers);
+  }
+
+  /**
+   * Returns the times of the rate samples in milliseconds since the start
+   * of the search.
+   *
+   * @return the sample times
+   */
+  public long[] getSampleMillis() {
+    return Arrays.copyOf(sampleMillis, numSamples);
+  }
+
+  /**
+   * Returns the number of nodes expanded at each sample time.
+   *
+   * @return the expanded counts
+   */
+  public long[] getSampleExpanded() {
+    return Arrays.copyOf(sampleExpanded, numSamples);
+  }
+
+  @Override
+  public String toString() {
+    StringBuffer sb = new StringBuffer();
+    for (Phase p : Phase.values()) {
+      sb.append(p);sb.append(" ms: ");
+      sb.append(phaseNanos[p.ordinal()] / 1000000L);sb.append("\n");
+    }
+    sb.append("Max Open Size: ");sb.append(maxOpenSize);sb.append("\n");
+    sb.append("Closed Load Factor: ");sb.append(getClosedLoadFactor());
+    sb.append("\n");
+    sb.append("Mean Probe Length: ");sb.append(meanProbeLength);sb.append("\n");
+    sb.append("Max Probe Length: ");sb.append(maxProbeLength);sb.append("\n");
+    sb.append("Expanded By Layer: ");
+    sb.append(Arrays.toString(getExpandedByLayer()));sb.append("\n");
+    return sb.toString();
+  }
+
+}
@@ -62,6 +62,43 @@ public interface SearchResult {
 	 */
 	public long getCpuTimeMillis();
 	
+	/**
+	 * Returns the number of heuristic cache hits during the search, or 0 if
+	 * the domain has no heuristic cache.
+	 * 
+	 * @return the number of heuristic cache hits
+	 */
+	public long getHeuristicCacheHits();
+	
+	/**
+	 * Returns the number of heuristic cache misses during the search, or 0 if
+	 * the domain has no heuristic cache.
+	 * 
+	 * @return the number of heuristic cache misses
+	 */
+	public long getHeuristicCacheMisses();
+	
+	/**
+	 * Returns the detailed metrics of the search, or null if metrics are
+	 * disabled or the algorithm does not collect them.
+	 * 
+	 * @return the metrics or null
+	 */
+	public SearchMetrics getMetrics();
+	
+	/**
+	 * Returns the reason the search stopped.
+	 * 
+	 * @return the status
+	 */
+	public Status getStatus();
+	
+	/**
+	 * The reasons a search stops.
+	 */
+	public enum Status {SOLVED, NO_SOLUTION, TIME_LIMIT, CPU_TIME_LIMIT, 
+		EXPANSION_LIMIT, MEMORY_LIMIT, CANCELLED};
+	
 	/**
 	 * Interface for search iterations.
 	 */
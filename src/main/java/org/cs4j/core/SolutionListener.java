@@ -0,0 +1,38 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core;
+
+import org.cs4j.core.SearchResult.Solution;
+
+/**
+ * Receives the solutions of an anytime search as they are found.  Each
+ * solution is cheaper than the one before.  Solutions are delivered on
+ * the searching thread, so the listener should return quickly.
+ *
+ * @author Matthew Hatem
+ */
+public interface SolutionListener {
+
+  /**
+   * Called when the search finds a cheaper solution.
+   *
+   * @param solution the solution
+   * @param weight the suboptimality bound the search was working to
+   */
+  public void onSolution(Solution solution, double weight);
+
+}
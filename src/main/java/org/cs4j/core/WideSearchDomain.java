@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core;
+
+/**
+ * An optional extension of the search domain interface for domains whose
+ * states do not always fit in a single packed long.  When more than one
+ * word is needed the pack and unpack methods of SearchDomain are not
+ * supported and algorithms use the multi-word variants below instead.
+ *
+ * @author Matthew Hatem
+ */
+public interface WideSearchDomain extends SearchDomain {
+
+  /**
+   * Returns the number of words in a packed state, 1 if the states fit in
+   * a single long.
+   *
+   * @return the number of words in a packed state
+   */
+  public int getPackedWords();
+
+  /**
+   * Packs the specified state into the specified words.
+   *
+   * @param state the state
+   * @param words receives the packed state, of length getPackedWords
+   */
+  public void pack(State state, long[] words);
+
+  /**
+   * Unpacks the specified words into a state.
+   *
+   * @param words the packed state
+   * @return the state
+   */
+  public State unpack(long[] words);
+
+}
@@ -0,0 +1,305 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.algorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.cs4j.core.LimitedSearchAlgorithm;
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchDomain.Operator;
+import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchLimits;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.SolutionListener;
+import org.cs4j.core.algorithms.SearchResultImpl.SolutionImpl;
+import org.cs4j.core.collections.BinHeap;
+import org.cs4j.core.collections.LongNodeMap;
+
+/**
+ * Anytime Repairing A* (Likhachev, Gordon and Thrun 2003).
+ * 
+ * A series of weighted A* searches with decreasing weights that share one
+ * open list and one table of nodes.  A node whose g improves after it was
+ * expanded in the current iteration is set aside as inconsistent instead
+ * of being reopened, and joins open when the next iteration starts, so
+ * each iteration only repairs the previous one.  An iteration ends once
+ * the incumbent is no worse than the least weighted f in open, at which
+ * point the incumbent is within the weight of optimal.
+ * 
+ * Each cheaper solution is added to the result and passed to the
+ * listener as soon as its goal is generated.  Nodes that cannot lead to a
+ * cheaper solution are pruned.  The search ends when an iteration with a
+ * weight of one finishes, when the incumbent is proven optimal, or when a
+ * limit is reached, in which case the solutions found so far are returned.
+ * 
+ * @author Matthew Hatem
+ */
+public class ARAstar implements LimitedSearchAlgorithm {
+  
+  private static final int QID = 0;
+  
+  private final double initialWeight;
+  private final double decrement;
+  private SolutionListener listener;
+  
+  private SearchDomain domain;
+  private SearchResultImpl result;
+  private Limiter limiter;
+  private BinHeap<Node> open;
+  private LongNodeMap<Node> nodes;
+  private List<Node> incons;
+  private double weight;
+  private int iteration;
+  private Node incumbent;
+  
+  /**
+   * The constructor, starting at a weight of 2.5 and lowering it by 0.5.
+   */
+  public ARAstar() {
+    this(2.5, 0.5);
+  }
+  
+  /**
+   * The constructor.
+   * 
+   * @param initialWeight the weight of the first iteration
+   * @param decrement the amount the weight is lowered after each iteration
+   */
+  public ARAstar(double initialWeight, double decrement) {
+    if (initialWeight < 1)
+      throw new IllegalArgumentException("Weight must be at least 1");
+    if (decrement <= 0)
+      throw new IllegalArgumentException("Decrement must be positive");
+    this.initialWeight = initialWeight;
+    this.decrement = decrement;
+  }
+  
+  /**
+   * Sets the listener that receives each cheaper solution, or null.
+   * 
+   * @param listener the listener
+   */
+  public void setSolutionListener(SolutionListener listener) {
+    this.listener = listener;
+  }
+  
+  @Override
+  public SearchResult search(SearchDomain domain) {
+    return search(domain, new SearchLimits());
+  }
+  
+  @Override
+  public SearchResult search(SearchDomain domain, SearchLimits limits) {
+    this.domain = domain;
+    result = new SearchResultImpl(this, domain);
+    result.startTimer();
+    limiter = new Limiter(limits);
+    open = new BinHeap<>(new NodeComparator(), QID);
+    nodes = new LongNodeMap<>();
+    incons = new ArrayList<>();
+    weight = initialWeight;
+    iteration = 0;
+    incumbent = null;
+    
+    State state = domain.initialState();
+    Node root = new Node(state, null, null, null, 0);
+    nodes.put(root.packed, root);
+    if (domain.isGoal(state)) {
+      improve(root);
+    }
+    else {
+      open.add(root);
+    }
+    
+    while (true) {
+      improvePath();
+      if (limiter.isStopped()) {
+        result.setStatus(limiter.getStatus());
+        break;
+      }
+      if (weight <= 1 || !nextIteration())
+        break;
+    }
+    
+    result.stopTimer();
+    return result;
+  }
+  
+  /*
+   * Expands nodes until the incumbent is no worse than the best node in
+   * open or a limit is reached.
+   */
+  private void improvePath() {
+    while (!open.isEmpty()) {
+      Node n = open.peek();
+      if (incumbent != null && incumbent.g <= n.fw)
+        return;
+      open.poll();
+      if (incumbent != null && n.g + n.h >= incumbent.g)
+        continue;
+      if (limiter.isExceeded(result.expanded))
+        return;
+      
+      n.closed = iteration;
+      result.expanded++;
+      State state = domain.unpack(n.packed);
+      for (int i = 0; i < domain.getNumOperators(state); i++) {
+        Operator op = domain.getOperator(state, i);
+        if (op.equals(n.pop)) {
+          continue;
+        }
+        result.generated++;
+        double cost = op.getCost(state);
+        State childState = domain.applyOperator(state, op);
+        Node child = new Node(childState, n, op, op.reverse(state), cost);
+        if (incumbent != null && child.g + child.h >= incumbent.g) {
+          continue;
+        }
+        if (domain.isGoal(childState)) {
+          improve(child);
+          continue;
+        }
+        merge(child);
+      }
+    }
+  }
+  
+  /*
+   * Adds the node or updates its duplicate if the node is cheaper.
+   */
+  private void merge(Node node) {
+    Node dup = nodes.get(node.packed);
+    if (dup == null) {
+      nodes.put(node.packed, node);
+      open.add(node);
+      return;
+    }
+    result.duplicates++;
+    if (dup.g <= node.g) {
+      return;
+    }
+    dup.g = node.g;
+    dup.fw = dup.g + weight * dup.h;
+    dup.parent = node.parent;
+    dup.op = node.op;
+    dup.pop = node.pop;
+    if (dup.getIndex(QID) != -1) {
+      open.update(dup);
+    }
+    else if (dup.closed == iteration) {
+      // repaired in the next iteration
+      if (!dup.incons) {
+        dup.incons = true;
+        incons.add(dup);
+      }
+    }
+    else {
+      result.reopened++;
+      open.add(dup);
+    }
+  }
+  
+  /*
+   * Records a cheaper goal as the incumbent and publishes its solution.
+   */
+  private void improve(Node goal) {
+    incumbent = goal;
+    List<Operator> path = new ArrayList<>();
+    for (Node p = goal; p != null; p = p.parent) {
+      path.add(p.op);
+    }
+    Collections.reverse(path);
+    SolutionImpl solution = new SolutionImpl();
+    solution.addOperators(path);
+    solution.setCost(goal.g);
+    result.addSolution(solution);
+    if (listener != null)
+      listener.onSolution(solution, weight);
+  }
+  
+  /*
+   * Lowers the weight and moves the inconsistent nodes into open.  Returns
+   * false if the incumbent is proven optimal or there is nothing left to
+   * search.
+   */
+  private boolean nextIteration() {
+    weight = Math.max(1, weight - decrement);
+    iteration++;
+    
+    List<Node> all = new ArrayList<>(open.size() + incons.size());
+    while (!open.isEmpty()) {
+      all.add(open.poll());
+    }
+    for (Node n : incons) {
+      n.incons = false;
+      all.add(n);
+    }
+    incons.clear();
+    
+    double lowerBound = Double.MAX_VALUE;
+    for (Node n : all) {
+      if (incumbent != null && n.g + n.h >= incumbent.g)
+        continue;
+      n.fw = n.g + weight * n.h;
+      open.add(n);
+      lowerBound = Math.min(lowerBound, n.g + n.h);
+    }
+    return !open.isEmpty() && (incumbent == null || incumbent.g > lowerBound);
+  }
+  
+  /*
+   * The node class
+   */
+  private final class Node extends SearchQueueElementImpl {
+    double g, h, fw;
+    Operator op, pop;
+    Node parent;
+    long packed;
+    int closed = -1;
+    boolean incons;
+    
+    private Node(State state, Node parent, Operator op, Operator pop, 
+        double cost) {
+      super(1);
+      this.g = (parent != null) ? parent.g + cost : 0;
+      this.h = state.getH();
+      this.fw = g + weight * h;
+      this.parent = parent;
+      this.packed = domain.pack(state);
+      this.op = op;
+      this.pop = pop;
+    }
+  }
+  
+  /*
+   * Orders nodes on low weighted f, breaking ties on high g.
+   */
+  private static final class NodeComparator implements Comparator<Node> {
+    @Override
+    public int compare(final Node a, final Node b) {
+      if (a.fw < b.fw) return -1;
+      if (a.fw > b.fw) return 1;
+      if (a.g > b.g) return -1;
+      if (a.g < b.g) return 1;
+      return 0;
+    }
+  }
+  
+}
@@ -19,38 +19,50 @@ package org.cs4j.core.algorithms;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-import org.cs4j.core.SearchAlgorithm;
+import org.cs4j.core.LimitedSearchAlgorithm;
+import org.cs4j.core.PackedSearchDomain;
+import org.cs4j.core.PackedSearchDomain.Successors;
 import org.cs4j.core.SearchDomain;
 import org.cs4j.core.SearchDomain.Operator;
 import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchLimits;
+import org.cs4j.core.SearchMetrics;
+import org.cs4j.core.SearchMetrics.Phase;
 import org.cs4j.core.SearchResult;
+import org.cs4j.core.WideSearchDomain;
 import org.cs4j.core.algorithms.SearchResultImpl.SolutionImpl;
 import org.cs4j.core.collections.BinHeap;
 import org.cs4j.core.collections.BucketHeap;
 import org.cs4j.core.collections.BucketHeap.BucketHeapElement;
+import org.cs4j.core.collections.DaryHeap;
+import org.cs4j.core.collections.LongNodeMap;
+import org.cs4j.core.collections.QuantizedBucketHeap;
 import org.cs4j.core.collections.SearchQueue;
+import org.cs4j.core.collections.WideNodeMap;
+import org.cs4j.core.jfr.SearchEvents;
 
 /**
  * A* Search and Weighted A* Search
  * 
  * @author Matthew Hatem
  */
-public class Astar implements SearchAlgorithm {
+public class Astar implements LimitedSearchAlgorithm {
 	
 	private static final int QID = 0;
     
   private SearchDomain domain;
+  private WideSearchDomain wideDomain;
   private SearchQueue<Node> open;
   private double weight;  
   private HeapType heapType;
+  private SearchMetrics metrics;
   private List<Operator> path = new ArrayList<Operator>(3);
-  private Map<Long, Node> closed = new HashMap<>();
+  private LongNodeMap<Node> closed = new LongNodeMap<>();
+  private WideNodeMap<Node> wideClosed = new WideNodeMap<>();
   
-  public enum HeapType {BIN, BUCKET};
+  public enum HeapType {BIN, BUCKET, QUANTIZED, DARY};
   
   /**
    * The Constructor
@@ -62,7 +74,7 @@ public class Astar implements SearchAlgorithm {
   /**
    * The Constructor
    * 
-   * @param heapType the type of heap to use (BIN | BUCKET)
+   * @param heapType the type of heap to use (BIN | BUCKET | QUANTIZED | DARY)
    */
   public Astar(HeapType heapType) {
   	this(1.0, heapType);
@@ -80,6 +92,12 @@ public class Astar implements SearchAlgorithm {
   	case BUCKET:
   		heap = new BucketHeap<>(size, QID);
   		break;  	
+  	case QUANTIZED:
+  		heap = new QuantizedBucketHeap<>(QID);
+  		break;
+  	case DARY:
+  		heap = new DaryHeap<>(QID);
+  		break;
   	case BIN:
   		heap = new BinHeap<>(new NodeComparator(), 0);
   		break;
@@ -89,22 +107,53 @@ public class Astar implements SearchAlgorithm {
   
   @Override
   public SearchResult search(SearchDomain domain) {
+  	return search(domain, new SearchLimits());
+  }
+  
+  @Override
+  public SearchResult search(SearchDomain domain, SearchLimits limits) {
   	this.domain = domain;
   	double goalCost = Double.MAX_VALUE;
     
-  	SearchResultImpl result = new SearchResultImpl();
+  	SearchResultImpl result = new SearchResultImpl(this, domain);
   	result.startTimer();
+  	Limiter limiter = new Limiter(limits);
+  	metrics = SearchMetrics.ENABLED ? result.collectMetrics() : null;
+  	
+  	// states that need more than one word are keyed by all of them
+  	wideDomain = (domain instanceof WideSearchDomain && 
+  			((WideSearchDomain)domain).getPackedWords() > 1) ? 
+  			(WideSearchDomain)domain : null;
+  	
+  	// expand packed states directly when the domain supports it
+  	PackedSearchDomain packedDomain = (domain instanceof PackedSearchDomain &&
+  			wideDomain == null) ? (PackedSearchDomain)domain : null;
+  	Successors successors = new Successors();
   	
   	State state = domain.initialState();
     Node initNode = new Node(state);    
     open.add(initNode);
-    closed.put(initNode.packed, initNode);
+    putClosed(initNode);
+    
+    // a layer ends when a node with a greater f is expanded
+    double layerF = -1;
+    long layerExpanded = 0;
+    Object layerEvent = null;
+    
     while (!open.isEmpty()) {
       Node n = open.poll();
-      state = domain.unpack(n.packed);
+      if (SearchMetrics.ENABLED) metrics.lap(Phase.SELECT);
+      if (packedDomain == null) {
+      	state = (wideDomain != null) ? wideDomain.unpack(n.words) : 
+      			domain.unpack(n.packed);
+      	if (SearchMetrics.ENABLED) metrics.lap(Phase.UNPACK);
+      }
       
       // check for goal
-      if (domain.isGoal(state)) {
+      boolean goal = (packedDomain != null) ? packedDomain.isGoal(n.packed) : 
+      		domain.isGoal(state);
+      if (SearchMetrics.ENABLED) metrics.lap(Phase.GOAL_TEST);
+      if (goal) {
       	goalCost = n.g;
         for (Node p = n; p != null; p = p.parent) {
             path.add(p.op);
@@ -112,45 +161,62 @@ public class Astar implements SearchAlgorithm {
         Collections.reverse(path);
         break;
       }
+      
+      if (limiter.isExceeded(result.expanded)) {
+      	result.setStatus(limiter.getStatus());
+      	break;
+      }
+            
+      if (SearchEvents.ENABLED && n.f > layerF) {
+      	SearchEvents.layerFinished(layerEvent, layerF, 
+      			result.expanded - layerExpanded, open.size());
+      	layerEvent = SearchEvents.layerStarted();
+      	layerF = n.f;
+      	layerExpanded = result.expanded;
+      }
             
       // expand the node
       result.expanded++;
-      for (int i = 0; i < domain.getNumOperators(state); i++) {
-          Operator op = domain.getOperator(state, i);
-          if (op.equals(n.pop)) {
-              continue;
-          }
-          result.generated++;
-          State childState = domain.applyOperator(state, op);
-          Node node = new Node(childState, n, op, op.reverse(state));
-          
-          // merge duplicates
-          if (closed.containsKey(node.packed)) {
-          	result.duplicates++;
-            Node dup = closed.get(node.packed);
-            if (dup.g > node.g) {
-              dup.f = node.f;
-              dup.g = node.g;
-              dup.op = node.op;
-              dup.pop = node.pop;
-              dup.parent = node.parent;
-              if (dup.getIndex(open.getKey()) != -1) {
-                open.update(dup);
-              }
-              else {
-              	result.reopened++;
-              	open.add(dup);
-              }
-            }
-          }
-          else {
-            open.add(node);
-            closed.put(node.packed, node);
-          }
+      if (SearchMetrics.ENABLED) {
+      	metrics.expanded(n.f, result.expanded);
+      	metrics.openSize(open.size()+1);
+      }
+      if (packedDomain != null) {
+      	packedDomain.expand(n.packed, successors);
+      	for (int i = 0; i < successors.size(); i++) {
+      		if (successors.getOperator(i).equals(n.pop)) {
+      			continue;
+      		}
+      		result.generated++;
+      		Node child = new Node(successors, i, n);
+      		if (SearchMetrics.ENABLED) metrics.lap(Phase.GENERATE);
+      		merge(child, result);
+      	}
+      }
+      else {
+      	for (int i = 0; i < domain.getNumOperators(state); i++) {
+      		Operator op = domain.getOperator(state, i);
+      		if (op.equals(n.pop)) {
+      			continue;
+      		}
+      		result.generated++;
+      		State childState = domain.applyOperator(state, op);
+      		Node child = new Node(childState, n, op, op.reverse(state));
+      		if (SearchMetrics.ENABLED) metrics.lap(Phase.GENERATE);
+      		merge(child, result);
+      	}
       }
     }
+    SearchEvents.layerFinished(layerEvent, layerF, 
+    		result.expanded - layerExpanded, open.size());
    
     result.stopTimer();
+    if (SearchMetrics.ENABLED) {
+    	if (wideDomain != null)
+    		metrics.closed(wideClosed);
+    	else
+    		metrics.closed(closed);
+    }
 
     if (path != null && path.size() > 0) {
     	SolutionImpl solution = new SolutionImpl();
@@ -162,15 +228,56 @@ public class Astar implements SearchAlgorithm {
     return result;
   }
   
+  /*
+   * Merges the node with its duplicate or adds it to open and closed.
+   */
+  private void merge(Node node, SearchResultImpl result) {
+    Node dup = (wideDomain != null) ? wideClosed.get(node.words) : 
+    		closed.get(node.packed);
+    if (SearchMetrics.ENABLED) metrics.lap(Phase.DUPLICATES);
+    if (dup != null) {
+    	result.duplicates++;
+      if (dup.g > node.g) {
+        dup.f = node.f;
+        dup.g = node.g;
+        dup.h = node.h;
+        dup.op = node.op;
+        dup.pop = node.pop;
+        dup.parent = node.parent;
+        if (dup.getIndex(open.getKey()) != -1) {
+          open.update(dup);
+        }
+        else {
+        	result.reopened++;
+        	open.add(dup);
+        }
+      }
+    }
+    else {
+      open.add(node);
+      putClosed(node);
+    }
+    if (SearchMetrics.ENABLED) metrics.lap(Phase.INSERT);
+  }
+  
+  private void putClosed(Node node) {
+  	if (wideDomain != null)
+  		wideClosed.put(node.words, node);
+  	else
+  		closed.put(node.packed, node);
+  }
+  
   /*
    * The node class
    */
   private final class Node extends SearchQueueElementImpl implements BucketHeapElement {
-    double f, g;
+    double f, g, h;
     Operator op, pop;
     Node parent;
     long packed;
+    long[] words;
     int[] secondaryIndex;
+    int[] binIndex;
     
     private Node(State state) {
     	this(state, null, null, null);
@@ -178,16 +285,37 @@ public class Astar implements SearchAlgorithm {
     
     private Node(State state, Node parent, Operator op, Operator pop) {
     	super(1);
-    	secondaryIndex = new int[(heapType == HeapType.BUCKET) ? 2 : 1];
+    	secondaryIndex = new int[(heapType != HeapType.BIN) ? 2 : 1];
+    	binIndex = new int[(heapType != HeapType.BIN) ? 2 : 1];
     	double cost = (op != null) ? op.getCost(state) : 0;
       this.g = (parent != null) ? parent.g+cost : cost;
-      this.f = g + (weight*state.getH());
+      this.h = state.getH();
+      this.f = g + (weight*h);
       this.parent = parent;
-      packed = domain.pack(state);
+      if (wideDomain != null) {
+      	words = new long[wideDomain.getPackedWords()];
+      	wideDomain.pack(state, words);
+      }
+      else {
+      	packed = domain.pack(state);
+      }
     	this.pop = pop;
       this.op = op;
     }
     
+    private Node(Successors successors, int i, Node parent) {
+    	super(1);
+    	secondaryIndex = new int[(heapType != HeapType.BIN) ? 2 : 1];
+    	binIndex = new int[(heapType != HeapType.BIN) ? 2 : 1];
+      this.g = parent.g + successors.getCost(i);
+      this.h = parent.h + successors.getDeltaH(i);
+      this.f = g + (weight*h);
+      this.parent = parent;
+      this.packed = successors.getPacked(i);
+      this.pop = successors.getReverseOperator(i);
+      this.op = successors.getOperator(i);
+    }
+    
     @Override
     public void setSecondaryIndex(int key, int index) {
     	secondaryIndex[key] = index;
@@ -198,6 +326,16 @@ public class Astar implements SearchAlgorithm {
     	return secondaryIndex[key];
     }
     
+    @Override
+    public void setBinIndex(int key, int index) {
+    	binIndex[key] = index;
+    }
+    
+    @Override
+    public int getBinIndex(int key) {
+    	return binIndex[key];
+    }
+    
     @Override
     public double getRank(int level) {
     	return (level == 0) ? f : g;
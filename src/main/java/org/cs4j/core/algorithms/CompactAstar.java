@@ -0,0 +1,192 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.algorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.cs4j.core.PackedSearchDomain;
+import org.cs4j.core.PackedSearchDomain.Successors;
+import org.cs4j.core.SearchAlgorithm;
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchDomain.Operator;
+import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.algorithms.SearchResultImpl.SolutionImpl;
+import org.cs4j.core.collections.NodeHeap;
+import org.cs4j.core.collections.NodeStore;
+
+/**
+ * A* Search and Weighted A* Search over a compact node store.  Nodes
+ * live in the parallel arrays of a NodeStore instead of node objects, and
+ * the open list is a heap of int handles.  Nodes record the index of the
+ * operator that generated them rather than the operator itself; the
+ * operators of the solution are recovered from the parent states once a
+ * goal is found.  The parent is not regenerated, which is detected by
+ * comparing packed states.
+ *
+ * Expansion order matches Astar with a binary heap.
+ *
+ * @author Matthew Hatem
+ */
+public class CompactAstar implements SearchAlgorithm {
+
+  private final double weight;
+  private SearchDomain domain;
+  private NodeStore store;
+  private NodeHeap open;
+
+  /**
+   * The Constructor
+   */
+  public CompactAstar() {
+    this(1.0);
+  }
+
+  /**
+   * The Constructor
+   *
+   * @param weight the weight
+   */
+  public CompactAstar(double weight) {
+    this.weight = weight;
+  }
+
+  @Override
+  public SearchResult search(SearchDomain domain) {
+    this.domain = domain;
+    this.store = new NodeStore();
+    this.open = new NodeHeap(store, weight);
+
+    SearchResultImpl result = new SearchResultImpl(this, domain);
+    result.startTimer();
+
+    PackedSearchDomain packedDomain = (domain instanceof PackedSearchDomain) ? 
+        (PackedSearchDomain)domain : null;
+    Successors successors = new Successors();
+
+    State initState = domain.initialState();
+    open.add(store.add(domain.pack(initState), 0, initState.getH(), 
+        NodeStore.NONE, 0));
+    int goal = NodeStore.NONE;
+    while (!open.isEmpty()) {
+      int n = open.poll();
+      long packed = store.getPacked(n);
+      double g = store.getG(n);
+      State state = (packedDomain != null) ? null : domain.unpack(packed);
+
+      // check for goal
+      if ((packedDomain != null) ? packedDomain.isGoal(packed) : 
+          domain.isGoal(state)) {
+        goal = n;
+        break;
+      }
+
+      // expand the node, skipping the parent
+      result.expanded++;
+      int parent = store.getParent(n);
+      long ppacked = (parent != NodeStore.NONE) ? store.getPacked(parent) : 0;
+      if (packedDomain != null) {
+        double h = store.getH(n);
+        packedDomain.expand(packed, successors);
+        for (int i = 0; i < successors.size(); i++) {
+          long child = successors.getPacked(i);
+          if (parent != NodeStore.NONE && child == ppacked) {
+            continue;
+          }
+          result.generated++;
+          merge(child, g + successors.getCost(i), 
+              h + successors.getDeltaH(i), n, i, result);
+        }
+      }
+      else {
+        int numOps = domain.getNumOperators(state);
+        for (int i = 0; i < numOps; i++) {
+          Operator op = domain.getOperator(state, i);
+          State childState = domain.applyOperator(state, op);
+          long child = domain.pack(childState);
+          if (parent != NodeStore.NONE && child == ppacked) {
+            continue;
+          }
+          result.generated++;
+          merge(child, g + op.getCost(state), childState.getH(), n, i, 
+              result);
+        }
+      }
+    }
+
+    result.stopTimer();
+
+    if (goal != NodeStore.NONE) {
+      SolutionImpl solution = new SolutionImpl();
+      solution.addOperators(path(goal));
+      solution.setCost(store.getG(goal));
+      result.addSolution(solution);
+    }
+
+    return result;
+  }
+
+  /*
+   * Merges the node with its duplicate or adds it to the store and open.
+   */
+  private void merge(long packed, double g, double h, int parent, int op, 
+      SearchResultImpl result) {
+    int dup = store.find(packed);
+    if (dup != NodeStore.NONE) {
+      result.duplicates++;
+      if (store.getG(dup) > g) {
+        store.setG(dup, g);
+        store.setH(dup, h);
+        store.setParent(dup, parent);
+        store.setOperator(dup, op);
+        if (store.getHeapIndex(dup) != -1) {
+          open.update(dup);
+        }
+        else {
+          result.reopened++;
+          open.add(dup);
+        }
+      }
+    }
+    else {
+      open.add(store.add(packed, g, h, parent, op));
+    }
+  }
+
+  /*
+   * Recovers the operators on the path to the goal.  As in Astar the
+   * path starts with a null operator for the initial state.
+   */
+  private List<Operator> path(int goal) {
+    List<Operator> path = new ArrayList<>();
+    for (int n = goal; n != NodeStore.NONE; n = store.getParent(n)) {
+      int parent = store.getParent(n);
+      if (parent == NodeStore.NONE) {
+        path.add(null);
+      }
+      else {
+        State state = domain.unpack(store.getPacked(parent));
+        path.add(domain.getOperator(state, store.getOperator(n)));
+      }
+    }
+    Collections.reverse(path);
+    return path;
+  }
+
+}
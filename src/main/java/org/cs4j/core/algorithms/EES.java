@@ -5,37 +5,47 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
-import org.cs4j.core.SearchAlgorithm;
+import org.cs4j.core.LimitedSearchAlgorithm;
+import org.cs4j.core.PackedSearchDomain;
+import org.cs4j.core.PackedSearchDomain.Successors;
 import org.cs4j.core.SearchDomain;
 import org.cs4j.core.SearchDomain.Operator;
 import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchLimits;
+import org.cs4j.core.SearchMetrics;
+import org.cs4j.core.SearchMetrics.Phase;
 import org.cs4j.core.SearchResult;
+import org.cs4j.core.WideSearchDomain;
 import org.cs4j.core.algorithms.SearchResultImpl.SolutionImpl;
 import org.cs4j.core.collections.BinHeap;
 import org.cs4j.core.collections.GEQueue;
+import org.cs4j.core.collections.LongNodeMap;
 import org.cs4j.core.collections.RBTreeElement;
 import org.cs4j.core.collections.RBTreeNode;
+import org.cs4j.core.collections.WideNodeMap;
 
-import com.carrotsearch.hppc.LongObjectOpenHashMap;
-
-public class EES implements SearchAlgorithm {
+public class EES implements LimitedSearchAlgorithm {
 
   private static final int CLEANUP_ID = 0;
   private static final int FOCAL_ID = 1;
   
-  private LongObjectOpenHashMap<Node> closed = 
-      new LongObjectOpenHashMap<Node>();
+  LongNodeMap<Node> closed = new LongNodeMap<Node>();
+  WideNodeMap<Node> wideClosed = new WideNodeMap<Node>();
     
-  private SearchDomain domain;
-  private double weight;
+  SearchDomain domain;
+  WideSearchDomain wideDomain;
+  PackedSearchDomain packedDomain;
+  double weight;
+  // only collected by the sequential search
+  SearchMetrics metrics;
   
   // cleanup is implemented as a binary heap
-  private BinHeap<Node> cleanup = 
+  BinHeap<Node> cleanup = 
       new BinHeap<Node>(new CleanupNodeComparator(), CLEANUP_ID);
 
    // open is implemented as a RedBlack tree
-  private OpenNodeComparator openComparator = new OpenNodeComparator();
-  private GEQueue<Node> gequeue = new GEQueue<>(openComparator, 
+  OpenNodeComparator openComparator = new OpenNodeComparator();
+  GEQueue<Node> gequeue = new GEQueue<>(openComparator, 
       new GENodeComparator(), new FocalNodeComparator(), FOCAL_ID);
   
   /**
@@ -51,16 +61,20 @@ public class EES implements SearchAlgorithm {
    * @see edu.unh.ai.search.SearchAlgorithm#search(java.lang.Object)
    */
   public SearchResult search(SearchDomain domain) {
-  	this.domain = domain;
-    
+  	return search(domain, new SearchLimits());
+  }
+  
+  @Override
+  public SearchResult search(SearchDomain domain, SearchLimits limits) {
   	Node goal = null;
-  	SearchResultImpl result = new SearchResultImpl();
+  	SearchResultImpl result = new SearchResultImpl(this, domain);
   	result.startTimer();
+  	Limiter limiter = new Limiter(limits);
+  	metrics = SearchMetrics.ENABLED ? result.collectMetrics() : null;
   	
-  	State initState = domain.initialState();
-    Node initNode = new Node(initState, null, null, null);    
-    insertNode(initNode, initNode);
-    gequeue.updateFocal(null, initNode, 0);
+  	init(domain);
+  	Successors successors = new Successors();
+  	List<Node> children = new ArrayList<>();
     
     while (!gequeue.isEmpty()) {
       Node oldBest = gequeue.peekOpen();
@@ -68,69 +82,172 @@ public class EES implements SearchAlgorithm {
       if (n == null) {
         break;
       }      
+      if (SearchMetrics.ENABLED) metrics.lap(Phase.SELECT);
 
-      State state = domain.unpack(n.packed);
-      if (domain.isGoal(state)) {
+      State state = unpack(n);
+      if (SearchMetrics.ENABLED) metrics.lap(Phase.UNPACK);
+      boolean found = isGoal(n, state);
+      if (SearchMetrics.ENABLED) metrics.lap(Phase.GOAL_TEST);
+      if (found) {
       	goal = n;
         break;
       }
       
+      if (limiter.isExceeded(result.expanded)) {
+      	result.setStatus(limiter.getStatus());
+      	break;
+      }
+      
       result.expanded++; 
-      int numOps = domain.getNumOperators(state);
-      for (int i = 0; i < numOps; i++) {
-          Operator op = domain.getOperator(state, i);
-          if (op.equals(n.pop)) {
-              continue;
-          }
-          result.generated++;
-          State childState = domain.applyOperator(state, op);          
-          Node node = new Node(childState, n, op, op.reverse(state));      
-
-          // merge duplicates
-          if (closed.containsKey(node.packed)) {
-            result.duplicates++;
-            Node dup = closed.get(node.packed);
-            if (dup.f > node.f) {
-              if (dup.getIndex(CLEANUP_ID) != -1) {
-                gequeue.remove(dup);
-                cleanup.remove(dup);
-                closed.remove(dup.packed);
-              }
-              insertNode(node, oldBest);
-            }
-          }
-          else {
-            insertNode(node, oldBest);
-          }
+      if (SearchMetrics.ENABLED) {
+      	metrics.expanded(n.f, result.expanded);
+      	metrics.openSize(cleanup.size()+1);
       }
-      Node newBest = gequeue.peekOpen();
-      int fHatChange = openComparator.compareIgnoreTies(newBest, oldBest);
-      gequeue.updateFocal(oldBest, newBest, fHatChange);
+      expand(n, state, successors, children);
+      if (SearchMetrics.ENABLED) metrics.lap(Phase.GENERATE);
+      for (Node child : children) {
+        result.generated++;
+        merge(child, oldBest, result);
+      }
+      updateFocal(oldBest);
+      if (SearchMetrics.ENABLED) metrics.lap(Phase.INSERT);
     }    
     result.stopTimer();
+    if (SearchMetrics.ENABLED) {
+    	if (wideDomain != null)
+    		metrics.closed(wideClosed);
+    	else
+    		metrics.closed(closed);
+    }
     
     if (goal != null) {
-    	SolutionImpl solution = new SolutionImpl();
-    	List<Operator> path = new ArrayList<>();
-      for (Node p = goal; p != null; p = p.parent) {
-        path.add(p.op);
-      }
-      Collections.reverse(path);
-      solution.addOperators(path);
-      solution.setCost(goal.g);
-      result.addSolution(solution);
+      addSolution(goal, result);
     }
     
     return result;
   }  
   
-  private void insertNode(Node node, Node oldBest) {
+  /*
+   * Sets up the search of the domain and adds the initial node.
+   */
+  void init(SearchDomain domain) {
+  	this.domain = domain;
+  	
+  	// states that need more than one word are keyed by all of them
+  	wideDomain = (domain instanceof WideSearchDomain && 
+  			((WideSearchDomain)domain).getPackedWords() > 1) ? 
+  			(WideSearchDomain)domain : null;
+  	
+  	// expand packed states directly when the domain supports it
+  	packedDomain = (domain instanceof PackedSearchDomain &&
+  			wideDomain == null) ? (PackedSearchDomain)domain : null;
+  	
+  	State initState = domain.initialState();
+    Node initNode = new Node(initState, null, null, null);    
+    insertNode(initNode, initNode);
+    gequeue.updateFocal(null, initNode, 0);
+  }
+  
+  /*
+   * Returns the state of the node, or null if it is expanded packed.
+   */
+  State unpack(Node n) {
+    if (packedDomain != null)
+      return null;
+    return (wideDomain != null) ? wideDomain.unpack(n.words) : 
+        domain.unpack(n.packed);
+  }
+  
+  boolean isGoal(Node n, State state) {
+    return (packedDomain != null) ? packedDomain.isGoal(n.packed) : 
+        domain.isGoal(state);
+  }
+  
+  /*
+   * Generates the children of the node, except its parent, into the list.
+   */
+  void expand(Node n, State state, Successors successors, List<Node> children) {
+    children.clear();
+    if (packedDomain != null) {
+      packedDomain.expand(n.packed, successors);
+      for (int i = 0; i < successors.size(); i++) {
+        if (successors.getOperator(i).equals(n.pop)) {
+          continue;
+        }
+        children.add(new Node(successors, i, n));
+      }
+    }
+    else {
+      int numOps = domain.getNumOperators(state);
+      for (int i = 0; i < numOps; i++) {
+        Operator op = domain.getOperator(state, i);
+        if (op.equals(n.pop)) {
+          continue;
+        }
+        State childState = domain.applyOperator(state, op);          
+        children.add(new Node(childState, n, op, op.reverse(state)));
+      }
+    }
+  }
+  
+  /*
+   * Updates focal after open changed, oldBest was the best node before.
+   */
+  void updateFocal(Node oldBest) {
+    Node newBest = gequeue.peekOpen();
+    if (newBest == null) {
+      return;
+    }
+    int fHatChange = openComparator.compareIgnoreTies(newBest, oldBest);
+    gequeue.updateFocal(oldBest, newBest, fHatChange);
+  }
+  
+  void addSolution(Node goal, SearchResultImpl result) {
+  	SolutionImpl solution = new SolutionImpl();
+  	List<Operator> path = new ArrayList<>();
+    for (Node p = goal; p != null; p = p.parent) {
+      path.add(p.op);
+    }
+    Collections.reverse(path);
+    solution.addOperators(path);
+    solution.setCost(goal.g);
+    result.addSolution(solution);
+  }
+  
+  void merge(Node node, Node oldBest, SearchResultImpl result) {
+    Node dup = (wideDomain != null) ? wideClosed.get(node.words) : 
+        closed.get(node.packed);
+    if (SearchMetrics.ENABLED && metrics != null) metrics.lap(Phase.DUPLICATES);
+    if (dup != null) {
+      result.duplicates++;
+      if (dup.f > node.f) {
+        if (dup.getIndex(CLEANUP_ID) != -1) {
+          gequeue.remove(dup);
+          cleanup.remove(dup);
+          if (wideDomain != null)
+            wideClosed.remove(dup.words);
+          else
+            closed.remove(dup.packed);
+        }
+        insertNode(node, oldBest);
+      }
+    }
+    else {
+      insertNode(node, oldBest);
+    }
+    if (SearchMetrics.ENABLED && metrics != null) metrics.lap(Phase.INSERT);
+  }
+  
+  void insertNode(Node node, Node oldBest) {
     gequeue.add(node, oldBest);
     cleanup.add(node);
-    closed.put(node.packed, node);    
+    if (wideDomain != null)
+      wideClosed.put(node.words, node);
+    else
+      closed.put(node.packed, node);
   }
  
-  private Node selectNode() {
+  Node selectNode() {
     Node value = null;
     Node bestDHat = gequeue.peekFocal();
     Node bestFHat = gequeue.peekOpen();
@@ -164,7 +281,7 @@ public class EES implements SearchAlgorithm {
    * TODO implement other methods for SSE correction and design
    * the necessary abstractions to move this out of the node class.
    */
-  private class Node extends SearchQueueElementImpl 
+  class Node extends SearchQueueElementImpl 
   	implements RBTreeElement<Node, Node>, Comparable<Node> {
   	
     double f, g, d, h, sseH, sseD, fHat, hHat, dHat;
@@ -172,11 +289,18 @@ public class EES implements SearchAlgorithm {
     Operator op, pop;
     Node parent;
     long packed;
+    long[] words;
     RBTreeNode<Node, Node> rbnode = null;
     
     private Node (State state, Node parent, Operator op, final Operator pop) {
     	super(2);
-      this.packed = domain.pack(state);
+      if (wideDomain != null) {
+        this.words = new long[wideDomain.getPackedWords()];
+        wideDomain.pack(state, words);
+      }
+      else {
+        this.packed = domain.pack(state);
+      }
       this.parent = parent;
       this.op = op;
       this.pop = pop;
@@ -194,6 +318,23 @@ public class EES implements SearchAlgorithm {
       computePathHats(parent, cost);      
     }
     
+    private Node (Successors successors, int i, Node parent) {
+    	super(2);
+      this.packed = successors.getPacked(i);
+      this.parent = parent;
+      this.op = successors.getOperator(i);
+      this.pop = successors.getReverseOperator(i);
+      
+      double cost = successors.getCost(i);
+      this.g = parent.g + cost;
+      this.depth = parent.depth+1;
+      this.h = parent.h + successors.getDeltaH(i);
+      this.d = parent.d + successors.getDeltaD(i);
+      this.f = g + h;
+      
+      computePathHats(parent, cost);
+    }
+    
     private void computePathHats(Node parent, double edgeCost) {
     	if (parent != null) {
     		this.sseH = parent.sseH + ((edgeCost + h) - parent.h);      
@@ -0,0 +1,207 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.algorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.cs4j.core.LimitedSearchAlgorithm;
+import org.cs4j.core.PartialExpansionSearchDomain;
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchDomain.Operator;
+import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchLimits;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.algorithms.SearchResultImpl.SolutionImpl;
+import org.cs4j.core.collections.BinHeap;
+import org.cs4j.core.collections.LongNodeMap;
+
+/**
+ * Enhanced Partial Expansion A* (Felner et al. 2012).
+ * 
+ * A* generates every child of the nodes it expands, although most of them
+ * have an f above the current layer and are only stored.  EPEA* asks the
+ * domain for the operators whose change in f falls within the range the
+ * node was selected for and generates only those children.  The node then
+ * goes back into open with a stored value F of f plus the next change in
+ * f, and is closed once no operators remain.  Open and the closed table
+ * hold far fewer nodes and the heap sees far fewer insertions, at the cost
+ * of expanding a node once for each of its layers.  Every expansion is
+ * counted.
+ * 
+ * The first expansion of a node selects every operator that does not
+ * increase f, so the heuristic need only be admissible.
+ * 
+ * @author Matthew Hatem
+ */
+public class EPEAstar implements LimitedSearchAlgorithm {
+  
+  private static final int QID = 0;
+  
+  private PartialExpansionSearchDomain domain;
+  private BinHeap<Node> open;
+  private LongNodeMap<Node> closed;
+  private List<Operator> selected = new ArrayList<>(4);
+  
+  @Override
+  public SearchResult search(SearchDomain domain) {
+    return search(domain, new SearchLimits());
+  }
+  
+  @Override
+  public SearchResult search(SearchDomain domain, SearchLimits limits) {
+    if (!(domain instanceof PartialExpansionSearchDomain))
+      throw new IllegalArgumentException("Domain does not select operators");
+    this.domain = (PartialExpansionSearchDomain)domain;
+    open = new BinHeap<>(new NodeComparator(), QID);
+    closed = new LongNodeMap<>();
+    List<Operator> path = new ArrayList<>();
+    double goalCost = Double.MAX_VALUE;
+    
+    SearchResultImpl result = new SearchResultImpl(this, domain);
+    result.startTimer();
+    Limiter limiter = new Limiter(limits);
+    
+    Node initNode = new Node(domain.initialState(), null, null, null, 0);
+    open.add(initNode);
+    closed.put(initNode.packed, initNode);
+    
+    while (!open.isEmpty()) {
+      Node n = open.poll();
+      State state = domain.unpack(n.packed);
+      if (domain.isGoal(state)) {
+        goalCost = n.g;
+        for (Node p = n; p != null; p = p.parent) {
+          path.add(p.op);
+        }
+        Collections.reverse(path);
+        break;
+      }
+      
+      if (limiter.isExceeded(result.expanded)) {
+        result.setStatus(limiter.getStatus());
+        break;
+      }
+      
+      // generate the children within the range of the node
+      result.expanded++;
+      selected.clear();
+      double next = this.domain.selectOperators(state, n.pop, n.lower, 
+          n.upper, selected);
+      for (int i = 0; i < selected.size(); i++) {
+        Operator op = selected.get(i);
+        result.generated++;
+        double cost = op.getCost(state);
+        State childState = domain.applyOperator(state, op);
+        merge(new Node(childState, n, op, op.reverse(state), cost), result);
+      }
+      
+      // put the node back for its next layer
+      if (next != Double.MAX_VALUE) {
+        n.lower = n.upper;
+        n.upper = next;
+        n.F = n.f + next;
+        open.add(n);
+      }
+    }
+    
+    result.stopTimer();
+    
+    if (path.size() > 0) {
+      SolutionImpl solution = new SolutionImpl();
+      solution.addOperators(path);
+      solution.setCost(goalCost);
+      result.addSolution(solution);
+    }
+    
+    return result;
+  }
+  
+  /*
+   * Merges the node with its duplicate or adds it to open and closed.  A
+   * duplicate reached more cheaply starts over from its first layer.
+   */
+  private void merge(Node node, SearchResultImpl result) {
+    Node dup = closed.get(node.packed);
+    if (dup == null) {
+      open.add(node);
+      closed.put(node.packed, node);
+      return;
+    }
+    result.duplicates++;
+    if (dup.g <= node.g) {
+      return;
+    }
+    dup.g = node.g;
+    dup.f = node.f;
+    dup.F = node.F;
+    dup.lower = node.lower;
+    dup.upper = node.upper;
+    dup.op = node.op;
+    dup.pop = node.pop;
+    dup.parent = node.parent;
+    if (dup.getIndex(QID) != -1) {
+      open.update(dup);
+    }
+    else {
+      result.reopened++;
+      open.add(dup);
+    }
+  }
+  
+  /*
+   * The node class.  F is f plus the upper limit on the change in f of
+   * the operators selected by the next expansion.
+   */
+  private final class Node extends SearchQueueElementImpl {
+    double f, g, F;
+    double lower = Double.NEGATIVE_INFINITY;
+    double upper = 0;
+    Operator op, pop;
+    Node parent;
+    long packed;
+    
+    private Node(State state, Node parent, Operator op, Operator pop, 
+        double cost) {
+      super(1);
+      this.g = (parent != null) ? parent.g + cost : 0;
+      this.f = g + state.getH();
+      this.F = f;
+      this.parent = parent;
+      this.packed = domain.pack(state);
+      this.op = op;
+      this.pop = pop;
+    }
+  }
+  
+  /*
+   * Orders nodes on low F, breaking ties on high g.
+   */
+  private static final class NodeComparator implements Comparator<Node> {
+    @Override
+    public int compare(final Node a, final Node b) {
+      if (a.F < b.F) return -1;
+      if (a.F > b.F) return 1;
+      if (a.g > b.g) return -1;
+      if (a.g < b.g) return 1;
+      return 0;
+    }
+  }
+  
+}
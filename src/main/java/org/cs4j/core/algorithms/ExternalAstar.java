@@ -0,0 +1,482 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.algorithms;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cs4j.core.SearchAlgorithm;
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchDomain.Operator;
+import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.algorithms.SearchResultImpl.SolutionImpl;
+
+/**
+ * External A* Search (Edelkamp, Jabbar and Schroedl 2004) with delayed
+ * duplicate detection.
+ * 
+ * Packed states are kept on disk in buckets of equal g and h, which are
+ * expanded in order of f and then g.  Children are appended to the files
+ * of their buckets without any duplicate checks.  When a bucket is
+ * expanded its file is sorted externally in runs that fit in memory, the
+ * runs are merged, and the states of the same h in the previous layers
+ * are subtracted by a merge as well.  In an undirected graph a duplicate
+ * lies at most twice the largest edge cost behind.  The result is written
+ * back as the sorted closed file of the bucket, which is what the
+ * solution path is recovered from by binary searching the neighbors of
+ * each state on the path in the closed buckets behind it.  All reads and
+ * writes are sequential through large buffers except for that search.
+ * 
+ * This requires reversible operators, integer costs and a consistent
+ * integer heuristic.  The heap only holds the sorted runs and the I/O
+ * buffers.
+ * 
+ * @author Matthew Hatem
+ */
+public class ExternalAstar implements SearchAlgorithm {
+  
+  private static final int DEFAULT_RUN_SIZE = 1 << 22;
+  private static final int READ_BUFFER_SIZE = 1 << 20;
+  private static final int WRITE_BUFFER_SIZE = 1 << 16;
+  
+  private final File baseDir;
+  private final int runSize;
+  
+  private SearchDomain domain;
+  private SearchResultImpl result;
+  private File dir;
+  private Map<Long, BucketWriter> open = new HashMap<>();
+  private int maxCost;
+  
+  /**
+   * The constructor, buckets are stored in the temporary directory.
+   */
+  public ExternalAstar() {
+    this(null, DEFAULT_RUN_SIZE);
+  }
+  
+  /**
+   * The constructor.
+   * 
+   * @param dir the directory to store buckets in
+   */
+  public ExternalAstar(File dir) {
+    this(dir, DEFAULT_RUN_SIZE);
+  }
+  
+  /**
+   * The constructor.
+   * 
+   * @param dir the directory to store buckets in or null for the 
+   * temporary directory
+   * @param runSize the number of states sorted in memory at once
+   */
+  public ExternalAstar(File dir, int runSize) {
+    if (runSize < 1)
+      throw new IllegalArgumentException("runSize must be positive");
+    this.baseDir = dir;
+    this.runSize = runSize;
+  }
+  
+  @Override
+  public SearchResult search(SearchDomain domain) {
+    this.domain = domain;
+    this.maxCost = 1;
+    result = new SearchResultImpl(this, domain);
+    result.startTimer();
+    
+    List<Operator> path = null;
+    double cost = 0;
+    try {
+      dir = (baseDir == null) ? 
+          Files.createTempDirectory("cs4j-external").toFile() :
+          Files.createTempDirectory(baseDir.toPath(), "cs4j-external").toFile();
+      State init = domain.initialState();
+      int h0 = integer(init.getH());
+      writer(0, h0).write(domain.pack(init));
+      
+      Goal goal = null;
+      for (int f = h0; goal == null && !open.isEmpty(); f++) {
+        for (int g = 0; goal == null && g <= f; g++) {
+          BucketWriter bucket = open.remove(key(g, f - g));
+          if (bucket != null)
+            goal = expand(bucket, g, f - g);
+        }
+      }
+      if (goal != null) {
+        path = recoverPath(goal.state, goal.g);
+        cost = goal.g;
+      }
+    }
+    catch (IOException e) {
+      throw new RuntimeException("External search failed", e);
+    }
+    finally {
+      for (BucketWriter w : open.values())
+        close(w);
+      open.clear();
+      delete(dir);
+    }
+    result.stopTimer();
+    
+    if (path != null) {
+      SolutionImpl solution = new SolutionImpl();
+      solution.addOperators(path);
+      solution.setCost(cost);
+      result.addSolution(solution);
+    }
+    
+    return result;
+  }
+  
+  /*
+   * Removes the duplicates from the bucket, writes its closed file and
+   * expands its states.  Returns the goal if one is found.
+   */
+  private Goal expand(BucketWriter bucket, int g, int h) throws IOException {
+    bucket.close();
+    List<File> runs = sortRuns(bucket.file, g, h);
+    bucket.file.delete();
+    
+    List<LongReader> readers = new ArrayList<>();
+    List<LongReader> previous = new ArrayList<>();
+    BucketWriter closed = new BucketWriter(closedFile(g, h));
+    try {
+      for (File run : runs)
+        readers.add(new LongReader(run));
+      // duplicates of a state lie at most two edges behind
+      for (int p = Math.max(0, g - 2 * maxCost); p < g; p++) {
+        File file = closedFile(p, h);
+        if (file.exists())
+          previous.add(new LongReader(file));
+      }
+      
+      boolean first = true;
+      long last = 0;
+      while (true) {
+        LongReader min = null;
+        for (LongReader r : readers) {
+          if (r.hasNext() && (min == null || r.peek() < min.peek()))
+            min = r;
+        }
+        if (min == null)
+          break;
+        long packed = min.next();
+        if (!first && packed == last) {
+          result.duplicates++;
+          continue;
+        }
+        first = false;
+        last = packed;
+        if (contains(previous, packed)) {
+          result.duplicates++;
+          continue;
+        }
+        
+        closed.write(packed);
+        State state = domain.unpack(packed);
+        if (domain.isGoal(state))
+          return new Goal(state, g);
+        
+        result.expanded++;
+        int numOps = domain.getNumOperators(state);
+        for (int i = 0; i < numOps; i++) {
+          Operator op = domain.getOperator(state, i);
+          State child = domain.applyOperator(state, op);
+          int c = integer(op.getCost(state));
+          int hc = integer(child.getH());
+          if (c == 0)
+            throw new UnsupportedOperationException("Zero cost operator");
+          if (c + hc < h)
+            throw new IllegalStateException("Inconsistent heuristic");
+          maxCost = Math.max(maxCost, c);
+          writer(g + c, hc).write(domain.pack(child));
+          result.generated++;
+        }
+      }
+      return null;
+    }
+    finally {
+      close(closed);
+      for (LongReader r : readers)
+        close(r);
+      for (LongReader r : previous)
+        close(r);
+      for (File run : runs)
+        run.delete();
+    }
+  }
+  
+  /*
+   * Returns true if the sorted readers contain the key, which must not be
+   * smaller than any key looked up before.
+   */
+  private boolean contains(List<LongReader> readers, long key) 
+      throws IOException {
+    boolean found = false;
+    for (LongReader r : readers) {
+      while (r.hasNext() && r.peek() < key)
+        r.next();
+      if (r.hasNext() && r.peek() == key)
+        found = true;
+    }
+    return found;
+  }
+  
+  /*
+   * Sorts the file in runs of at most runSize states, removing the
+   * duplicates within each run.
+   */
+  private List<File> sortRuns(File file, int g, int h) throws IOException {
+    List<File> runs = new ArrayList<>();
+    long buffer[] = new long[(int)Math.min(runSize, file.length() / 8)];
+    LongReader reader = new LongReader(file);
+    try {
+      while (reader.hasNext()) {
+        int n = 0;
+        while (n < buffer.length && reader.hasNext())
+          buffer[n++] = reader.next();
+        Arrays.sort(buffer, 0, n);
+        File run = new File(dir, g+"-"+h+".run"+runs.size());
+        BucketWriter writer = new BucketWriter(run);
+        try {
+          for (int i = 0; i < n; i++) {
+            if (i > 0 && buffer[i] == buffer[i-1])
+              result.duplicates++;
+            else
+              writer.write(buffer[i]);
+          }
+        }
+        finally {
+          writer.close();
+        }
+        runs.add(run);
+      }
+    }
+    finally {
+      reader.close();
+    }
+    return runs;
+  }
+  
+  /*
+   * Recovers the path by walking back from the goal.  A predecessor of a
+   * state is a neighbor found in the closed bucket of its g and h.
+   */
+  private List<Operator> recoverPath(State state, int g) throws IOException {
+    List<Operator> path = new ArrayList<>();
+    while (g > 0) {
+      boolean found = false;
+      int numOps = domain.getNumOperators(state);
+      for (int i = 0; i < numOps && !found; i++) {
+        Operator back = domain.getOperator(state, i);
+        State parent = domain.applyOperator(state, back);
+        Operator op = back.reverse(state);
+        int pg = g - integer(op.getCost(parent));
+        if (pg >= 0 && 
+            search(closedFile(pg, integer(parent.getH())), domain.pack(parent))) {
+          path.add(op);
+          state = parent;
+          g = pg;
+          found = true;
+        }
+      }
+      if (!found)
+        throw new IllegalStateException("No predecessor in the closed buckets");
+    }
+    path.add(null);
+    Collections.reverse(path);
+    return path;
+  }
+  
+  /*
+   * Binary searches the sorted file with positional reads.
+   */
+  private boolean search(File file, long key) throws IOException {
+    if (!file.exists())
+      return false;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      FileChannel channel = raf.getChannel();
+      ByteBuffer buffer = ByteBuffer.allocate(8);
+      long lo = 0, hi = channel.size() / 8 - 1;
+      while (lo <= hi) {
+        long mid = (lo + hi) >>> 1;
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+          if (channel.read(buffer, mid * 8 + buffer.position()) < 0)
+            throw new IOException("Truncated bucket "+file);
+        }
+        long v = buffer.getLong(0);
+        if (v < key) lo = mid + 1;
+        else if (v > key) hi = mid - 1;
+        else return true;
+      }
+      return false;
+    }
+  }
+  
+  private BucketWriter writer(int g, int h) throws IOException {
+    BucketWriter w = open.get(key(g, h));
+    if (w == null) {
+      w = new BucketWriter(new File(dir, g+"-"+h+".open"));
+      open.put(key(g, h), w);
+    }
+    return w;
+  }
+  
+  private File closedFile(int g, int h) {
+    return new File(dir, g+"-"+h+".closed");
+  }
+  
+  private static long key(int g, int h) {
+    return ((long)g << 32) | (h & 0xFFFFFFFFL);
+  }
+  
+  private static int integer(double value) {
+    if (value != Math.rint(value) || value < 0)
+      throw new UnsupportedOperationException(
+          "External A* requires non-negative integer costs and heuristics");
+    return (int)value;
+  }
+  
+  private static void close(Closeable c) {
+    try {
+      c.close();
+    }
+    catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+  
+  private static void delete(File dir) {
+    if (dir == null)
+      return;
+    File files[] = dir.listFiles();
+    if (files != null) {
+      for (File f : files)
+        f.delete();
+    }
+    dir.delete();
+  }
+  
+  /*
+   * The goal state and its cost.
+   */
+  private static final class Goal {
+    final State state;
+    final int g;
+    Goal(State state, int g) {
+      this.state = state;
+      this.g = g;
+    }
+  }
+  
+  /*
+   * Appends longs to a file through a buffered channel.
+   */
+  private static final class BucketWriter implements Closeable {
+    final File file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    
+    @SuppressWarnings("resource")
+    BucketWriter(File file) throws IOException {
+      this.file = file;
+      this.channel = new RandomAccessFile(file, "rw").getChannel();
+    }
+    
+    void write(long value) throws IOException {
+      if (!buffer.hasRemaining())
+        flush();
+      buffer.putLong(value);
+    }
+    
+    private void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining())
+        channel.write(buffer);
+      buffer.clear();
+    }
+    
+    @Override
+    public void close() throws IOException {
+      if (channel.isOpen()) {
+        flush();
+        channel.close();
+      }
+    }
+  }
+  
+  /*
+   * Reads the longs of a file sequentially in large blocks.
+   */
+  private static final class LongReader implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private boolean eof;
+    
+    @SuppressWarnings("resource")
+    LongReader(File file) throws IOException {
+      this.channel = new RandomAccessFile(file, "r").getChannel();
+      buffer.flip();
+    }
+    
+    boolean hasNext() throws IOException {
+      if (buffer.remaining() >= 8)
+        return true;
+      if (eof)
+        return false;
+      buffer.compact();
+      while (buffer.position() < 8) {
+        if (channel.read(buffer) < 0) {
+          eof = true;
+          break;
+        }
+      }
+      buffer.flip();
+      return buffer.remaining() >= 8;
+    }
+    
+    long peek() {
+      return buffer.getLong(buffer.position());
+    }
+    
+    long next() throws IOException {
+      if (!hasNext())
+        throw new IllegalStateException("No more states");
+      return buffer.getLong();
+    }
+    
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+  
+}
@@ -0,0 +1,234 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.algorithms;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.cs4j.core.SearchAlgorithm;
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchDomain.Operator;
+import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.algorithms.SearchResultImpl.SolutionImpl;
+import org.cs4j.core.collections.BinHeap;
+import org.cs4j.core.collections.LongNodeMap;
+
+/**
+ * Frontier A* Search (Korf, Zhang, Thayer and Hohwald 2005).
+ * 
+ * Only the open nodes are stored.  Instead of a closed list each node
+ * keeps a bit mask of its operators that lead to neighbors which were
+ * already expanded, so expanded nodes are never generated again.  This
+ * requires reversible operators (an undirected graph), at most 64
+ * operators per state and a consistent heuristic.
+ * 
+ * Without a closed list the solution path is recovered by divide and
+ * conquer.  Every node remembers the edge where its path first reached
+ * a threshold cost (the relay), the search is repeated from the start to
+ * the relay and from the relay to the goal, and so on recursively.
+ * 
+ * @author Matthew Hatem
+ */
+public class FrontierAstar implements SearchAlgorithm {
+  
+  private SearchDomain domain;
+  private SearchResultImpl result;
+  private BinHeap<Node> open = new BinHeap<>(new NodeComparator(), 0);
+  private LongNodeMap<Node> frontier = new LongNodeMap<>();
+  
+  @Override
+  public SearchResult search(SearchDomain domain) {
+    this.domain = domain;
+    result = new SearchResultImpl(this, domain);
+    result.startTimer();
+    
+    State init = domain.initialState();
+    long initPacked = domain.pack(init);
+    Node goal = search(init, 0, true, init.getH() / 2);
+    List<Operator> path = null;
+    if (goal != null) {
+      path = new ArrayList<>();
+      path.add(null);
+      if (goal.packed != initPacked)
+        appendPath(init, goal, path);
+    }
+    result.stopTimer();
+    
+    if (path != null) {
+      SolutionImpl solution = new SolutionImpl();
+      solution.addOperators(path);
+      solution.setCost(goal.g);
+      result.addSolution(solution);
+    }
+    
+    return result;
+  }
+  
+  /*
+   * Appends the operators of the optimal path from start to the target of
+   * a search to the path, by solving the subproblems on either side of the
+   * relay edge of the target node.
+   */
+  private void appendPath(State start, Node target, List<Operator> path) {
+    State from = domain.unpack(target.relayFrom);
+    solve(start, target.relayFrom, target.relayG, path);
+    Operator op = domain.getOperator(from, target.relayOp);
+    path.add(op);
+    State to = domain.applyOperator(from, op);
+    double g = target.relayG + op.getCost(from);
+    solve(to, target.packed, target.g - g, path);
+  }
+  
+  /*
+   * Appends the operators of the optimal path from start to the target,
+   * whose cost is known, to the path.  The relay threshold is half the
+   * cost so that the subproblems shrink by half.
+   */
+  private void solve(State start, long target, double cost, List<Operator> path) {
+    if (domain.pack(start) == target)
+      return;
+    Node node = search(start, target, false, cost / 2);
+    appendPath(start, node, path);
+  }
+  
+  /*
+   * Searches from the start state to the target, or to a goal, and
+   * returns the target node or null if there is none.
+   */
+  private Node search(State start, long target, boolean toGoal, 
+      double threshold) {
+    open.clear();
+    frontier.clear();
+    Node root = new Node(domain.pack(start), 0, start.getH());
+    open.add(root);
+    frontier.put(root.packed, root);
+    
+    while (!open.isEmpty()) {
+      Node n = open.poll();
+      frontier.remove(n.packed);
+      State state = domain.unpack(n.packed);
+      if (toGoal ? domain.isGoal(state) : n.packed == target) {
+        return n;
+      }
+      
+      result.expanded++;
+      int numOps = domain.getNumOperators(state);
+      if (numOps > 64)
+        throw new UnsupportedOperationException("More than 64 operators");
+      for (int i = 0; i < numOps; i++) {
+        // skip operators that lead back to expanded nodes
+        if ((n.used & (1L << i)) != 0)
+          continue;
+        Operator op = domain.getOperator(state, i);
+        State childState = domain.applyOperator(state, op);
+        result.generated++;
+        double g = n.g + op.getCost(state);
+        long packed = domain.pack(childState);
+        long back = 1L << indexOf(childState, op.reverse(state));
+        Node child = frontier.get(packed);
+        if (child != null) {
+          result.duplicates++;
+          child.used |= back;
+          if (child.g > g) {
+            child.g = g;
+            child.f = g + child.h;
+            child.setRelay(n, i, threshold);
+            open.update(child);
+          }
+        }
+        else {
+          child = new Node(packed, g, childState.getH());
+          child.used = back;
+          child.setRelay(n, i, threshold);
+          open.add(child);
+          frontier.put(packed, child);
+        }
+      }
+    }
+    
+    return null;
+  }
+  
+  /*
+   * Returns the index of the operator of the state.
+   */
+  private int indexOf(State state, Operator op) {
+    int numOps = domain.getNumOperators(state);
+    for (int i = 0; i < numOps; i++) {
+      if (domain.getOperator(state, i).equals(op))
+        return i;
+    }
+    throw new IllegalStateException("Operator is not reversible");
+  }
+  
+  /*
+   * The node class
+   */
+  private static final class Node extends SearchQueueElementImpl {
+    long packed;
+    double f, g, h;
+    long used;
+    boolean relay;
+    long relayFrom;
+    double relayG;
+    int relayOp;
+    
+    private Node(long packed, double g, double h) {
+      super(1);
+      this.packed = packed;
+      this.g = g;
+      this.h = h;
+      this.f = g + h;
+    }
+    
+    /*
+     * Inherits the relay of the parent, or makes the edge from the parent
+     * the relay if it is the first to reach the threshold.
+     */
+    private void setRelay(Node parent, int op, double threshold) {
+      if (parent.relay) {
+        relay = true;
+        relayFrom = parent.relayFrom;
+        relayG = parent.relayG;
+        relayOp = parent.relayOp;
+      }
+      else {
+        relay = (g >= threshold);
+        relayFrom = parent.packed;
+        relayG = parent.g;
+        relayOp = op;
+      }
+    }
+  }
+  
+  /*
+   * The node comparator class
+   */
+  private static final class NodeComparator implements Comparator<Node> {
+    @Override
+    public int compare(final Node a, final Node b) {
+      if (a.f < b.f) return -1;
+      if (a.f > b.f) return 1;
+      if (a.g > b.g) return -1;
+      if (a.g < b.g) return 1;
+      return 0;
+    }
+  }
+  
+}
@@ -0,0 +1,475 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.algorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.cs4j.core.SearchAlgorithm;
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchDomain.Operator;
+import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.SearchResult.Status;
+import org.cs4j.core.algorithms.Astar.HeapType;
+import org.cs4j.core.algorithms.SearchResultImpl.SolutionImpl;
+import org.cs4j.core.collections.BinHeap;
+import org.cs4j.core.collections.BucketHeap;
+import org.cs4j.core.collections.BucketHeap.BucketHeapElement;
+import org.cs4j.core.collections.DaryHeap;
+import org.cs4j.core.collections.LongNodeMap;
+import org.cs4j.core.collections.QuantizedBucketHeap;
+import org.cs4j.core.collections.SearchQueue;
+
+/**
+ * Hash Distributed A* Search
+ *
+ * Each state is owned by the worker selected by a hash of its packed
+ * representation.  Workers keep a private open and closed list and send
+ * generated nodes to their owners in batches through lock-free mailboxes.
+ *
+ * Termination is detected with a global count of outstanding nodes, i.e.
+ * nodes that sit in a mailbox, an outbox or an open list, or are being
+ * expanded.  Increments are published before the nodes they count become
+ * visible to other workers and decrements may be delayed, so the count
+ * never reaches zero while work remains.  Nodes that cannot beat the
+ * incumbent are pruned, so the count reaches zero once the incumbent is
+ * proven optimal.
+ *
+ * If the searching thread is interrupted the workers are stopped and
+ * joined, and the result is cancelled with the incumbent found so far.
+ * If a worker fails, for example by running out of memory, the others
+ * are stopped and the failure is thrown from search.
+ *
+ * A worker with nothing to expand yields a few times and then parks with
+ * a growing timeout until another worker sends it nodes.
+ *
+ * @author Matthew Hatem
+ */
+public class HDAstar implements SearchAlgorithm {
+
+  private static final int QID = 0;
+  private static final int BATCH_SIZE = 64;
+  private static final int IDLE_SPINS = 16;
+  private static final long MAX_PARK_NANOS = 1000000;
+
+  private SearchDomain domain;
+  private final int numThreads;
+  private final HeapType heapType;
+
+  private Worker[] workers;
+  private final AtomicLong outstanding = new AtomicLong();
+  private volatile double incumbentCost;
+  private volatile boolean stopped;
+  private Throwable failure;
+  private Node incumbent;
+
+  /**
+   * The Constructor
+   *
+   * @param numThreads the number of worker threads
+   */
+  public HDAstar(int numThreads) {
+    this(numThreads, HeapType.BIN);
+  }
+
+  /**
+   * The Constructor
+   *
+   * @param numThreads the number of worker threads
+   * @param heapType the type of heap to use (BIN | BUCKET | QUANTIZED | DARY)
+   */
+  public HDAstar(int numThreads, HeapType heapType) {
+    if (numThreads < 1)
+      throw new IllegalArgumentException("At least one thread is required");
+    this.numThreads = numThreads;
+    this.heapType = heapType;
+  }
+
+  @Override
+  public SearchResult search(SearchDomain domain) {
+    this.domain = domain;
+    this.incumbent = null;
+    this.incumbentCost = Double.MAX_VALUE;
+    this.stopped = false;
+    this.failure = null;
+
+    SearchResultImpl result = new SearchResultImpl(this, domain);
+    result.startTimer();
+
+    workers = new Worker[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      workers[i] = new Worker(i);
+    }
+
+    Node initNode = new Node(domain.initialState(), null, null, null);
+    outstanding.set(1);
+    workers[owner(initNode.packed)].mailbox.add(
+        Collections.singletonList(initNode));
+
+    Thread[] threads = new Thread[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      threads[i] = new Thread(workers[i], "hdastar-"+i);
+      workers[i].thread = threads[i];
+    }
+    for (int i = 0; i < numThreads; i++) {
+      threads[i].start();
+    }
+    boolean interrupted = false;
+    for (int i = 0; i < numThreads; i++) {
+      try {
+        threads[i].join();
+      } catch (InterruptedException e) {
+        // stop the workers and wait for them to finish
+        interrupted = true;
+        stopped = true;
+        i--;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+      result.setStatus(Status.CANCELLED);
+    }
+
+    for (Worker w : workers) {
+      result.expanded += w.expanded;
+      result.generated += w.generated;
+      result.duplicates += w.duplicates;
+      result.reopened += w.reopened;
+    }
+
+    result.stopTimer();
+
+    if (failure instanceof Error)
+      throw (Error)failure;
+    if (failure != null)
+      throw new IllegalStateException("Search failed", failure);
+
+    if (incumbent != null) {
+      List<Operator> path = new ArrayList<>();
+      for (Node p = incumbent; p != null; p = p.parent) {
+        path.add(p.op);
+      }
+      Collections.reverse(path);
+      SolutionImpl solution = new SolutionImpl();
+      solution.addOperators(path);
+      solution.setCost(incumbent.g);
+      result.addSolution(solution);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the number of nodes expanded by each worker during the last
+   * search.
+   *
+   * @return the expanded counts indexed by worker
+   */
+  public long[] getWorkerExpanded() {
+    long[] counts = new long[numThreads];
+    for (int i = 0; workers != null && i < numThreads; i++)
+      counts[i] = workers[i].expanded;
+    return counts;
+  }
+
+  /**
+   * Returns the number of nodes generated by each worker during the last
+   * search.
+   *
+   * @return the generated counts indexed by worker
+   */
+  public long[] getWorkerGenerated() {
+    long[] counts = new long[numThreads];
+    for (int i = 0; workers != null && i < numThreads; i++)
+      counts[i] = workers[i].generated;
+    return counts;
+  }
+
+  private int owner(long packed) {
+    return (LongNodeMap.hash(packed) & Integer.MAX_VALUE) % numThreads;
+  }
+
+  private synchronized void offerIncumbent(Node goal) {
+    if (goal.g < incumbentCost) {
+      incumbent = goal;
+      incumbentCost = goal.g;
+    }
+  }
+
+  private synchronized void fail(Throwable e) {
+    if (failure == null)
+      failure = e;
+    stopped = true;
+  }
+
+  private SearchQueue<Node> buildHeap() {
+    switch(heapType) {
+    case BUCKET:
+      return new BucketHeap<>(100, QID);
+    case QUANTIZED:
+      return new QuantizedBucketHeap<>(QID);
+    case DARY:
+      return new DaryHeap<>(QID);
+    case BIN:
+    default:
+      return new BinHeap<>(new NodeComparator(), QID);
+    }
+  }
+
+  /*
+   * The worker class
+   */
+  private final class Worker implements Runnable {
+    final int id;
+    final ConcurrentLinkedQueue<List<Node>> mailbox =
+        new ConcurrentLinkedQueue<>();
+    final SearchQueue<Node> open = buildHeap();
+    final LongNodeMap<Node> closed = new LongNodeMap<>();
+    final List<List<Node>> outboxes = new ArrayList<>(numThreads);
+    Thread thread;
+    volatile boolean idle;
+    long expanded, generated, duplicates, reopened;
+    // outstanding decrements not yet published
+    long retired;
+
+    private Worker(int id) {
+      this.id = id;
+      for (int i = 0; i < numThreads; i++)
+        outboxes.add(new ArrayList<Node>(BATCH_SIZE));
+    }
+
+    @Override
+    public void run() {
+      try {
+        int idleCount = 0;
+        while (!stopped) {
+          receive();
+          if (open.isEmpty()) {
+            flushAll();
+            if (retired > 0) {
+              outstanding.addAndGet(-retired);
+              retired = 0;
+            }
+            if (outstanding.get() == 0)
+              break;
+            idle(idleCount++);
+            continue;
+          }
+          idleCount = 0;
+          expand(open.poll());
+        }
+      } catch (Throwable e) {
+        fail(e);
+      }
+    }
+
+    /*
+     * Waits for nodes, yielding at first and then parking for up to a
+     * millisecond.  Senders unpark idle workers, the timeout only bounds
+     * the time to notice termination.
+     */
+    private void idle(int count) {
+      if (count < IDLE_SPINS) {
+        Thread.yield();
+        return;
+      }
+      idle = true;
+      if (mailbox.isEmpty() && !stopped) {
+        long nanos = 1000L << Math.min(count - IDLE_SPINS, 10);
+        LockSupport.parkNanos(this, Math.min(nanos, MAX_PARK_NANOS));
+      }
+      idle = false;
+    }
+
+    private void expand(Node n) {
+      if (n.f >= incumbentCost) {
+        retired++;
+        return;
+      }
+      State state = domain.unpack(n.packed);
+      if (domain.isGoal(state)) {
+        offerIncumbent(n);
+        retired++;
+        return;
+      }
+
+      expanded++;
+      int children = 0;
+      for (int i = 0; i < domain.getNumOperators(state); i++) {
+        Operator op = domain.getOperator(state, i);
+        if (op.equals(n.pop)) {
+          continue;
+        }
+        generated++;
+        State childState = domain.applyOperator(state, op);
+        Node node = new Node(childState, n, op, op.reverse(state));
+        if (node.f >= incumbentCost) {
+          continue;
+        }
+        outboxes.get(owner(node.packed)).add(node);
+        children++;
+      }
+
+      // publish the children before any of them can be seen
+      long delta = children - 1 - retired;
+      if (delta > 0) {
+        outstanding.addAndGet(delta);
+        retired = 0;
+      }
+      else {
+        retired = -delta;
+      }
+
+      List<Node> local = outboxes.get(id);
+      insertAll(local);
+      local.clear();
+      for (int i = 0; i < numThreads; i++) {
+        if (i != id && outboxes.get(i).size() >= BATCH_SIZE) {
+          flush(i);
+        }
+      }
+    }
+
+    private void receive() {
+      List<Node> batch;
+      while ((batch = mailbox.poll()) != null) {
+        insertAll(batch);
+      }
+    }
+
+    private void insertAll(List<Node> batch) {
+      for (int i = 0; i < batch.size(); i++) {
+        insert(batch.get(i));
+      }
+    }
+
+    private void insert(Node node) {
+      Node dup = closed.get(node.packed);
+      if (dup == null) {
+        open.add(node);
+        closed.put(node.packed, node);
+        return;
+      }
+      duplicates++;
+      retired++;
+      if (dup.g > node.g) {
+        dup.f = node.f;
+        dup.g = node.g;
+        dup.op = node.op;
+        dup.pop = node.pop;
+        dup.parent = node.parent;
+        if (dup.getIndex(open.getKey()) != -1) {
+          open.update(dup);
+        }
+        else {
+          reopened++;
+          retired--;
+          open.add(dup);
+        }
+      }
+    }
+
+    private void flush(int i) {
+      List<Node> batch = outboxes.get(i);
+      if (batch.isEmpty())
+        return;
+      Worker w = workers[i];
+      w.mailbox.add(batch);
+      if (w.idle)
+        LockSupport.unpark(w.thread);
+      outboxes.set(i, new ArrayList<Node>(BATCH_SIZE));
+    }
+
+    private void flushAll() {
+      for (int i = 0; i < numThreads; i++) {
+        if (i != id)
+          flush(i);
+      }
+    }
+  }
+
+  /*
+   * The node class
+   */
+  private final class Node extends SearchQueueElementImpl implements BucketHeapElement {
+    double f, g;
+    Operator op, pop;
+    Node parent;
+    long packed;
+    int[] secondaryIndex;
+    int[] binIndex;
+
+    private Node(State state, Node parent, Operator op, Operator pop) {
+      super(1);
+      secondaryIndex = new int[1];
+      binIndex = new int[1];
+      double cost = (op != null) ? op.getCost(state) : 0;
+      this.g = (parent != null) ? parent.g+cost : cost;
+      this.f = g + state.getH();
+      this.parent = parent;
+      this.packed = domain.pack(state);
+      this.pop = pop;
+      this.op = op;
+    }
+
+    @Override
+    public void setSecondaryIndex(int key, int index) {
+      secondaryIndex[key] = index;
+    }
+
+    @Override
+    public int getSecondaryIndex(int key) {
+      return secondaryIndex[key];
+    }
+
+    @Override
+    public void setBinIndex(int key, int index) {
+      binIndex[key] = index;
+    }
+
+    @Override
+    public int getBinIndex(int key) {
+      return binIndex[key];
+    }
+
+    @Override
+    public double getRank(int level) {
+      return (level == 0) ? f : g;
+    }
+  }
+
+  /*
+   * The node comparator class
+   */
+  private final class NodeComparator implements Comparator<Node> {
+    @Override
+    public int compare(final Node a, final Node b) {
+      if (a.f < b.f) return -1;
+      if (a.f > b.f) return 1;
+      if (a.g > b.g) return -1;
+      if (a.g < b.g) return 1;
+      return 0;
+    }
+  }
+
+}
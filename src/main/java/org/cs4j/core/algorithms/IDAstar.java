@@ -16,22 +16,30 @@
  */
 package org.cs4j.core.algorithms;
 
+import org.cs4j.core.InPlaceSearchDomain;
+import org.cs4j.core.LimitedSearchAlgorithm;
 import org.cs4j.core.SearchDomain;
 import org.cs4j.core.SearchDomain.Operator;
 import org.cs4j.core.SearchDomain.State;
-import org.cs4j.core.SearchAlgorithm;
+import org.cs4j.core.SearchLimits;
+import org.cs4j.core.SearchMetrics;
+import org.cs4j.core.SearchMetrics.Phase;
 import org.cs4j.core.SearchResult;
 import org.cs4j.core.algorithms.SearchResultImpl.SolutionImpl;
+import org.cs4j.core.jfr.SearchEvents;
 
 /**
  * Iterative Deepening A* Search
  *
  * @author Matthew Hatem
  */
-public class IDAstar implements SearchAlgorithm {
+public class IDAstar implements LimitedSearchAlgorithm {
   
 	private SearchResultImpl result;
 	private SolutionImpl solution;
+	private InPlaceSearchDomain inplace;
+	private Limiter limiter;
+	private SearchMetrics metrics;
   private double weight;
   private double bound;
   private double minoob;
@@ -41,34 +49,53 @@ public class IDAstar implements SearchAlgorithm {
   }
   
   protected IDAstar(double weight) {
-  	solution = new SolutionImpl();
   	this.weight = weight;
   }
   
   @Override
   public SearchResult search(SearchDomain domain) {
-  	result = new SearchResultImpl();
+  	return search(domain, new SearchLimits());
+  }
+  
+  @Override
+  public SearchResult search(SearchDomain domain, SearchLimits limits) {
+  	result = new SearchResultImpl(this, domain);
+  	solution = new SolutionImpl();
+  	inplace = (domain instanceof InPlaceSearchDomain) 
+  			? (InPlaceSearchDomain)domain : null;
   	State root = domain.initialState();
   	result.startTimer();
+  	limiter = new Limiter(limits);
+  	metrics = SearchMetrics.ENABLED ? result.collectMetrics() : null;
     bound = weight*root.getH();
     int i = 0;
+    boolean goal;
     do {
       minoob = -1;
-      boolean goal = dfs(domain, root, 0, null);
+      Object event = SearchEvents.iterationStarted();
+      goal = dfs(domain, root, 0, null);
+      SearchEvents.iterationFinished(event, bound, result.expanded, 
+      		result.generated);
       i++;
       result.addIteration(i, bound, result.expanded, result.generated);
       bound = minoob;
-      if (goal) break;
-    } while (true);
+      // nothing was pruned so the whole space has been searched
+      if (minoob < 0) break;
+    } while (!goal && !limiter.isStopped());
     result.stopTimer();
-    result.addSolution(solution);
+    if (goal)
+      result.addSolution(solution);
+    else if (limiter.isStopped())
+      result.setStatus(limiter.getStatus());
     return result;
   }
 
   boolean dfs(SearchDomain domain, State parent, double cost, Operator pop) {
     double f = cost + weight*parent.getH();
     
-    if (f <= bound && domain.isGoal(parent)) {
+    boolean found = f <= bound && domain.isGoal(parent);
+    if (SearchMetrics.ENABLED) metrics.lap(Phase.GOAL_TEST);
+    if (found) {
       solution.setCost(f);
       solution.addOperator(pop);
       return true;
@@ -80,7 +107,11 @@ public class IDAstar implements SearchAlgorithm {
       return false;
     }
 
+    if (limiter.isExceeded(result.expanded))
+      return false;
+    
     result.expanded++;
+    if (SearchMetrics.ENABLED) metrics.expanded(f, result.expanded);
     int numOps = domain.getNumOperators(parent);
     for (int i=0; i<numOps; i++) {
     	Operator op = domain.getOperator(parent, i);
@@ -88,12 +119,26 @@ public class IDAstar implements SearchAlgorithm {
         continue;
 
       result.generated++;
-      State child = domain.applyOperator(parent, op);
-      boolean goal = dfs(domain, child, op.getCost(parent)+cost, op.reverse(parent));
+      boolean goal;
+      if (inplace != null) {
+      	double edgeCost = op.getCost(parent);
+      	Operator rev = op.reverse(parent);
+      	int token = inplace.apply(parent, op);
+      	if (SearchMetrics.ENABLED) metrics.lap(Phase.GENERATE);
+      	goal = dfs(domain, parent, edgeCost+cost, rev);
+      	inplace.undo(parent, token);
+      }
+      else {
+      	State child = domain.applyOperator(parent, op);
+      	if (SearchMetrics.ENABLED) metrics.lap(Phase.GENERATE);
+      	goal = dfs(domain, child, op.getCost(parent)+cost, op.reverse(parent));
+      }
       if (goal) {
         solution.addOperator(op);
         return true;
       }
+      if (limiter.isStopped())
+        return false;
     }
     
     return false;
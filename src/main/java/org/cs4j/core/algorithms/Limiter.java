@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.algorithms;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.cs4j.core.SearchLimits;
+import org.cs4j.core.SearchResult.Status;
+
+/**
+ * Checks the limits of a search.  The expansion limit is checked on every
+ * call and the others only every CHECK_INTERVAL calls, so the check is
+ * cheap enough to make once per expansion.  Once a limit is reached the
+ * limiter stays stopped.
+ *
+ * CPU time is that of the thread that created the limiter.
+ *
+ * @author Matthew Hatem
+ */
+final class Limiter {
+
+  private static final int CHECK_INTERVAL = 1024;
+
+  private final SearchLimits limits;
+  private final long maxExpanded;
+  private final long deadline;
+  private final long cpuDeadline;
+  private final long maxMemory;
+  private final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+  private int countdown = CHECK_INTERVAL;
+  private Status status;
+
+  Limiter(SearchLimits limits) {
+    this.limits = limits;
+    this.maxExpanded = (limits.getMaxExpanded() > 0) ? 
+        limits.getMaxExpanded() : Long.MAX_VALUE;
+    this.deadline = (limits.getTimeLimitMillis() > 0) ? 
+        System.nanoTime() + limits.getTimeLimitMillis() * 1000000L : 0;
+    this.cpuDeadline = (limits.getCpuTimeLimitMillis() > 0 && 
+        bean.isCurrentThreadCpuTimeSupported()) ? 
+        bean.getCurrentThreadCpuTime() + 
+        limits.getCpuTimeLimitMillis() * 1000000L : 0;
+    this.maxMemory = limits.getMaxMemoryBytes();
+  }
+
+  /**
+   * Returns true if the search must stop.
+   *
+   * @param expanded the number of nodes expanded so far
+   */
+  boolean isExceeded(long expanded) {
+    if (status != null)
+      return true;
+    if (expanded >= maxExpanded) {
+      status = Status.EXPANSION_LIMIT;
+      return true;
+    }
+    if (--countdown > 0)
+      return false;
+    countdown = CHECK_INTERVAL;
+    if (limits.isCancelled() || Thread.currentThread().isInterrupted())
+      status = Status.CANCELLED;
+    else if (deadline != 0 && System.nanoTime() - deadline >= 0)
+      status = Status.TIME_LIMIT;
+    else if (cpuDeadline != 0 && bean.getCurrentThreadCpuTime() >= cpuDeadline)
+      status = Status.CPU_TIME_LIMIT;
+    else if (maxMemory > 0 && usedMemory() > maxMemory)
+      status = Status.MEMORY_LIMIT;
+    return status != null;
+  }
+
+  /**
+   * Returns true if a limit has been reached.
+   */
+  boolean isStopped() {
+    return status != null;
+  }
+
+  /**
+   * Returns the limit that was reached, or null.
+   */
+  Status getStatus() {
+    return status;
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+}
@@ -0,0 +1,308 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.algorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.cs4j.core.BidirectionalSearchDomain;
+import org.cs4j.core.LimitedSearchAlgorithm;
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchDomain.Operator;
+import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchLimits;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.algorithms.SearchResultImpl.SolutionImpl;
+import org.cs4j.core.collections.BinHeap;
+import org.cs4j.core.collections.LongNodeMap;
+
+/**
+ * Bidirectional heuristic search that Meets in the Middle (Holte, Felner,
+ * Sharon and Sturtevant 2016).
+ * 
+ * A forward search from the initial state and a backward search from the
+ * goal state each order their open list on pr(n) = max(f(n), 2g(n)),
+ * where the backward search uses the reverse heuristic of the domain.  The
+ * node of lowest priority C in either list is expanded next, so neither
+ * search expands a node beyond half the cost of the optimal solution.
+ * 
+ * Every node that is generated, or reached more cheaply, is looked up by
+ * its packed state in the table of the other search, and each match is a
+ * solution that may improve the incumbent U.  The search ends once U is no
+ * greater than the lower bound max(C, fminF, fminB, gminF + gminB), which
+ * proves the incumbent optimal.  Nodes with an f no lower than U are
+ * pruned.
+ * 
+ * @author Matthew Hatem
+ */
+public class MM implements LimitedSearchAlgorithm {
+  
+  // the keys of the priority, f and g queues
+  private static final int PR = 0;
+  private static final int F = 1;
+  private static final int G = 2;
+  
+  private BidirectionalSearchDomain domain;
+  private SearchResultImpl result;
+  private Direction forward;
+  private Direction backward;
+  private double incumbentCost;
+  private Node meetForward;
+  private Node meetBackward;
+  
+  @Override
+  public SearchResult search(SearchDomain domain) {
+    return search(domain, new SearchLimits());
+  }
+  
+  @Override
+  public SearchResult search(SearchDomain domain, SearchLimits limits) {
+    if (!(domain instanceof BidirectionalSearchDomain))
+      throw new IllegalArgumentException("Domain is not bidirectional");
+    this.domain = (BidirectionalSearchDomain)domain;
+    result = new SearchResultImpl(this, domain);
+    result.startTimer();
+    Limiter limiter = new Limiter(limits);
+    forward = new Direction(true);
+    backward = new Direction(false);
+    forward.other = backward;
+    backward.other = forward;
+    incumbentCost = Double.MAX_VALUE;
+    meetForward = null;
+    meetBackward = null;
+    
+    forward.add(forward.root(domain.initialState()));
+    backward.add(backward.root(this.domain.goalState()));
+    
+    while (!forward.open.isEmpty() && !backward.open.isEmpty()) {
+      Node bestForward = forward.open.peek();
+      Node bestBackward = backward.open.peek();
+      if (incumbentCost <= lowerBound(bestForward, bestBackward))
+        break;
+      if (limiter.isExceeded(result.expanded)) {
+        result.setStatus(limiter.getStatus());
+        break;
+      }
+      if (bestForward.pr <= bestBackward.pr)
+        forward.expand(forward.poll());
+      else
+        backward.expand(backward.poll());
+    }
+    
+    if (meetForward != null)
+      result.addSolution(solution());
+    result.stopTimer();
+    return result;
+  }
+  
+  /*
+   * Returns the lower bound on the cost of a solution not found yet.
+   */
+  private double lowerBound(Node bestForward, Node bestBackward) {
+    double c = Math.min(bestForward.pr, bestBackward.pr);
+    double f = Math.max(forward.openF.peek().f, backward.openF.peek().f);
+    double g = forward.openG.peek().g + backward.openG.peek().g;
+    return Math.max(c, Math.max(f, g));
+  }
+  
+  /*
+   * Joins the forward path to the meeting point with the backward path
+   * from it.
+   */
+  private SolutionImpl solution() {
+    List<Operator> path = new ArrayList<>();
+    for (Node p = meetForward; p != null; p = p.parent) {
+      path.add(p.op);
+    }
+    Collections.reverse(path);
+    for (Node p = meetBackward; p.parent != null; p = p.parent) {
+      path.add(p.op);
+    }
+    SolutionImpl solution = new SolutionImpl();
+    solution.addOperators(path);
+    solution.setCost(incumbentCost);
+    return solution;
+  }
+  
+  /*
+   * The search in one direction.
+   */
+  private final class Direction {
+    final boolean isForward;
+    final BinHeap<Node> open = new BinHeap<>(new PriorityComparator(), PR);
+    final BinHeap<Node> openF = new BinHeap<>(new FComparator(), F);
+    final BinHeap<Node> openG = new BinHeap<>(new GComparator(), G);
+    final LongNodeMap<Node> nodes = new LongNodeMap<>();
+    Direction other;
+    
+    private Direction(boolean isForward) {
+      this.isForward = isForward;
+    }
+    
+    private Node root(State state) {
+      return new Node(state, null, null, null, 0, h(state));
+    }
+    
+    private double h(State state) {
+      return isForward ? state.getH() : domain.getReverseH(state);
+    }
+    
+    private void add(Node node) {
+      nodes.put(node.packed, node);
+      open.add(node);
+      openF.add(node);
+      openG.add(node);
+      meet(node);
+    }
+    
+    private Node poll() {
+      Node n = open.poll();
+      openF.remove(n);
+      openG.remove(n);
+      return n;
+    }
+    
+    /*
+     * Generates the children of the node.  Backward, applying an operator
+     * finds a predecessor, and the edge to the node is the reverse of the
+     * operator.
+     */
+    private void expand(Node n) {
+      if (n.f >= incumbentCost)
+        return;
+      result.expanded++;
+      State state = domain.unpack(n.packed);
+      for (int i = 0; i < domain.getNumOperators(state); i++) {
+        Operator op = domain.getOperator(state, i);
+        if (op.equals(n.pop)) {
+          continue;
+        }
+        result.generated++;
+        State childState = domain.applyOperator(state, op);
+        Operator pop = op.reverse(state);
+        double cost = isForward ? op.getCost(state) : pop.getCost(childState);
+        double childG = n.g + cost;
+        double childH = h(childState);
+        if (childG + childH >= incumbentCost) {
+          continue;
+        }
+        long packed = domain.pack(childState);
+        Node dup = nodes.get(packed);
+        if (dup == null) {
+          add(new Node(childState, n, isForward ? op : pop, pop, cost, 
+              childH));
+          continue;
+        }
+        result.duplicates++;
+        if (dup.g <= childG) {
+          continue;
+        }
+        dup.setG(childG);
+        dup.parent = n;
+        dup.op = isForward ? op : pop;
+        dup.pop = pop;
+        if (dup.getIndex(PR) != -1) {
+          open.update(dup);
+          openF.update(dup);
+          openG.update(dup);
+          meet(dup);
+        }
+        else {
+          result.reopened++;
+          add(dup);
+        }
+      }
+    }
+    
+    /*
+     * Checks whether the other search reached the state of the node.
+     */
+    private void meet(Node node) {
+      Node match = other.nodes.get(node.packed);
+      if (match == null || node.g + match.g >= incumbentCost)
+        return;
+      incumbentCost = node.g + match.g;
+      meetForward = isForward ? node : match;
+      meetBackward = isForward ? match : node;
+    }
+  }
+  
+  /*
+   * The node class.  The operator is the edge to the parent in the forward
+   * direction, so backward it leads from the node to its parent.
+   */
+  private final class Node extends SearchQueueElementImpl {
+    double g, h, f, pr;
+    Operator op, pop;
+    Node parent;
+    long packed;
+    
+    private Node(State state, Node parent, Operator op, Operator pop, 
+        double cost, double h) {
+      super(3);
+      this.h = h;
+      setG((parent != null) ? parent.g + cost : 0);
+      this.parent = parent;
+      this.packed = domain.pack(state);
+      this.op = op;
+      this.pop = pop;
+    }
+    
+    private void setG(double g) {
+      this.g = g;
+      this.f = g + h;
+      this.pr = Math.max(f, 2 * g);
+    }
+  }
+  
+  /*
+   * Orders nodes on low priority, breaking ties on low g.
+   */
+  private static final class PriorityComparator implements Comparator<Node> {
+    @Override
+    public int compare(final Node a, final Node b) {
+      if (a.pr < b.pr) return -1;
+      if (a.pr > b.pr) return 1;
+      if (a.g < b.g) return -1;
+      if (a.g > b.g) return 1;
+      return 0;
+    }
+  }
+  
+  /*
+   * Orders nodes on low f.
+   */
+  private static final class FComparator implements Comparator<Node> {
+    @Override
+    public int compare(final Node a, final Node b) {
+      return Double.compare(a.f, b.f);
+    }
+  }
+  
+  /*
+   * Orders nodes on low g.
+   */
+  private static final class GComparator implements Comparator<Node> {
+    @Override
+    public int compare(final Node a, final Node b) {
+      return Double.compare(a.g, b.g);
+    }
+  }
+  
+}
@@ -0,0 +1,287 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.cs4j.core.PackedSearchDomain.Successors;
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchLimits;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.SearchResult.Status;
+
+/**
+ * Parallel Explicit Estimation Search.
+ * 
+ * Several threads share the cleanup, open and focal lists of EES behind
+ * a single lock.  A thread selects a batch of nodes by the EES rules under
+ * the lock, then unpacks, tests and expands them without the lock, and
+ * finally merges all of their children under the lock again.  Batching
+ * takes the lock twice per batch rather than twice per node.
+ *
+ * Only unpacking, goal tests and generation run concurrently.  Selection,
+ * duplicate detection and insertion stay serialized, and on the 15-puzzle
+ * and the pancake problem they take 55 to 90 percent of a serial EES
+ * expansion, as measured by SearchMetrics.  Speedup is therefore bounded
+ * at about 1.1 to 1.8 no matter how many threads are used, and is lowest
+ * for packed domains, whose expansion is cheapest.  Scaling further would
+ * take partitioned lists, as in PBNF.
+ * 
+ * Because other threads expand speculatively, a goal does not end the
+ * search by itself.  It becomes the incumbent, and the search stops once
+ * the incumbent is within the weight of the lower bound.  That bound is
+ * the least f among the cleanup list and the nodes in flight.  Nodes that
+ * cannot improve the incumbent are pruned when selected.
+ * 
+ * @author Matthew Hatem
+ */
+public class ParallelEES extends EES {
+  
+  private static final int BATCH_SIZE = 8;
+  
+  private final int numThreads;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
+  private final List<Node> inflight = new ArrayList<>();
+  private SearchResultImpl result;
+  private SearchLimits limits;
+  private Node incumbent;
+  private boolean done;
+  private Throwable failure;
+  
+  /**
+   * The constructor.
+   * 
+   * @param weight the suboptimality bound
+   * @param numThreads the number of threads
+   */
+  public ParallelEES(double weight, int numThreads) {
+    super(weight);
+    if (numThreads < 1)
+      throw new IllegalArgumentException("numThreads must be positive");
+    this.numThreads = numThreads;
+  }
+  
+  /**
+   * Searches until the incumbent is proven or a limit is reached.  The CPU
+   * time limit applies to each thread.  A search stopped by a limit still
+   * returns its incumbent, if it has one.
+   */
+  @Override
+  public SearchResult search(SearchDomain domain, SearchLimits limits) {
+    result = new SearchResultImpl(this, domain);
+    result.startTimer();
+    this.limits = limits;
+    incumbent = null;
+    failure = null;
+    done = false;
+    inflight.clear();
+    
+    init(domain);
+    Thread[] threads = new Thread[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      threads[i] = new Thread(new Worker(), "pees-"+i);
+      threads[i].start();
+    }
+    boolean interrupted = false;
+    for (int i = 0; i < numThreads; i++) {
+      try {
+        threads[i].join();
+      } catch (InterruptedException e) {
+        // stop the workers and wait for them to finish
+        interrupted = true;
+        stop(Status.CANCELLED);
+        i--;
+      }
+    }
+    if (interrupted)
+      Thread.currentThread().interrupt();
+    
+    result.stopTimer();
+    
+    if (failure instanceof Error)
+      throw (Error)failure;
+    if (failure != null)
+      throw new IllegalStateException("Search failed", failure);
+    
+    if (incumbent != null) {
+      addSolution(incumbent, result);
+    }
+    
+    return result;
+  }
+  
+  /*
+   * Returns the next node to expand, or null when the search is done.
+   * Otherwise returns null only when the lists are empty and wait is
+   * false.  Must be called with the lock held.
+   */
+  private Node next(Limiter limiter, boolean wait) 
+      throws InterruptedException {
+    while (!done) {
+      if (limiter.isExceeded(result.expanded)) {
+        stop(limiter.getStatus());
+        return null;
+      }
+      if (incumbent != null && incumbent.g <= weight * lowerBound()) {
+        finish();
+        return null;
+      }
+      if (gequeue.isEmpty()) {
+        if (inflight.isEmpty()) {
+          finish();
+          return null;
+        }
+        if (!wait)
+          return null;
+        changed.await();
+        continue;
+      }
+      Node oldBest = gequeue.peekOpen();
+      Node n = selectNode();
+      updateFocal(oldBest);
+      if (incumbent != null && n.f >= incumbent.g) {
+        continue;
+      }
+      inflight.add(n);
+      return n;
+    }
+    return null;
+  }
+  
+  /*
+   * Fills the batch with up to BATCH_SIZE nodes to expand, waiting only for
+   * the first, since the others in flight may be this thread's own.
+   * Returns false when the search is done.  Must be called with the lock
+   * held.
+   */
+  private boolean next(Limiter limiter, List<Node> batch) 
+      throws InterruptedException {
+    Node n;
+    while ((n = next(limiter, batch.isEmpty())) != null) {
+      batch.add(n);
+      if (batch.size() == BATCH_SIZE)
+        break;
+    }
+    return !done;
+  }
+  
+  /*
+   * Returns the least f among the cleanup list and the nodes in flight.
+   */
+  private double lowerBound() {
+    double min = cleanup.isEmpty() ? Double.MAX_VALUE : cleanup.peek().f;
+    for (Node n : inflight) {
+      min = Math.min(min, n.f);
+    }
+    return min;
+  }
+  
+  private void finish() {
+    done = true;
+    changed.signalAll();
+  }
+  
+  private void stop(Status status) {
+    lock.lock();
+    try {
+      if (!done) {
+        result.setStatus(status);
+        finish();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+  
+  /*
+   * The worker class
+   */
+  private final class Worker implements Runnable {
+    
+    private final Successors successors = new Successors();
+    private final List<Node> children = new ArrayList<>();
+    private final List<Node> batch = new ArrayList<>(BATCH_SIZE);
+    private final List<Node> generated = new ArrayList<>();
+    // end of the children of each batch node in generated, or -1 for a goal
+    private final int[] ends = new int[BATCH_SIZE];
+    
+    @Override
+    public void run() {
+      Limiter limiter = new Limiter(limits);
+      lock.lock();
+      try {
+        while (next(limiter, batch)) {
+          lock.unlock();
+          try {
+            for (int i = 0; i < batch.size(); i++) {
+              Node n = batch.get(i);
+              State state = unpack(n);
+              if (isGoal(n, state)) {
+                ends[i] = -1;
+                continue;
+              }
+              expand(n, state, successors, children);
+              generated.addAll(children);
+              ends[i] = generated.size();
+            }
+          } finally {
+            lock.lock();
+          }
+          
+          Node oldBest = gequeue.peekOpen();
+          int start = 0;
+          for (int i = 0; i < batch.size(); i++) {
+            Node n = batch.get(i);
+            inflight.remove(n);
+            if (ends[i] < 0) {
+              if (incumbent == null || n.g < incumbent.g) {
+                incumbent = n;
+              }
+              continue;
+            }
+            result.expanded++;
+            if (oldBest == null) {
+              oldBest = n;
+            }
+            for (; start < ends[i]; start++) {
+              result.generated++;
+              merge(generated.get(start), oldBest, result);
+            }
+          }
+          if (oldBest != null) {
+            updateFocal(oldBest);
+          }
+          batch.clear();
+          generated.clear();
+          changed.signalAll();
+        }
+      } catch (InterruptedException | RuntimeException | Error e) {
+        failure = e;
+        finish();
+      } finally {
+        lock.unlock();
+      }
+    }
+    
+  }
+  
+}
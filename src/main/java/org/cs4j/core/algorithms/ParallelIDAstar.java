@@ -0,0 +1,291 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.cs4j.core.InPlaceSearchDomain;
+import org.cs4j.core.SearchAlgorithm;
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchDomain.Operator;
+import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.algorithms.SearchResultImpl.SolutionImpl;
+
+/**
+ * Parallel Iterative Deepening A* Search
+ *
+ * Each iteration splits the top of the search tree into fork/join tasks,
+ * one per node above the split depth, so idle threads steal subtrees
+ * from busy ones.  Below the split depth each task searches its subtree
+ * sequentially (in place when the domain supports it).  The minimum f
+ * value that exceeded the bound is kept as an atomic minimum, and the
+ * first task to find a goal within the bound stops all the others.  Any
+ * such goal is optimal, but it need not be the one sequential IDA* finds.
+ *
+ * @author Matthew Hatem
+ */
+public class ParallelIDAstar implements SearchAlgorithm {
+
+  public static final int DEFAULT_SPLIT_DEPTH = 8;
+
+  private final int numThreads;
+  private final int splitDepth;
+  private final double weight;
+
+  private SearchDomain domain;
+  private InPlaceSearchDomain inplace;
+  private double bound;
+  private final AtomicLong minoob = new AtomicLong();
+  private final AtomicLong expanded = new AtomicLong();
+  private final AtomicLong generated = new AtomicLong();
+  private final AtomicReference<SolutionImpl> goal = new AtomicReference<>();
+  private volatile boolean stop;
+
+  /**
+   * The constructor.
+   *
+   * @param numThreads the number of threads
+   */
+  public ParallelIDAstar(int numThreads) {
+    this(numThreads, DEFAULT_SPLIT_DEPTH);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param numThreads the number of threads
+   * @param splitDepth the depth above which nodes become separate tasks,
+   *        lower it for domains with a high branching factor
+   */
+  public ParallelIDAstar(int numThreads, int splitDepth) {
+    this(numThreads, splitDepth, 1.0);
+  }
+
+  protected ParallelIDAstar(int numThreads, int splitDepth, double weight) {
+    if (numThreads < 1)
+      throw new IllegalArgumentException("numThreads must be positive");
+    this.numThreads = numThreads;
+    this.splitDepth = splitDepth;
+    this.weight = weight;
+  }
+
+  @Override
+  public SearchResult search(SearchDomain domain) {
+    this.domain = domain;
+    this.inplace = (domain instanceof InPlaceSearchDomain) 
+        ? (InPlaceSearchDomain)domain : null;
+    SearchResultImpl result = new SearchResultImpl(this, domain);
+    expanded.set(0);
+    generated.set(0);
+    goal.set(null);
+    stop = false;
+
+    State root = domain.initialState();
+    ForkJoinPool pool = new ForkJoinPool(numThreads);
+    result.startTimer();
+    try {
+      bound = weight*root.getH();
+      int i = 0;
+      do {
+        minoob.set(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+        pool.invoke(new Task(root, 0, null, 0, null));
+        i++;
+        result.addIteration(i, bound, expanded.get(), generated.get());
+        if (goal.get() != null) break;
+        bound = Double.longBitsToDouble(minoob.get());
+      } while (bound < Double.POSITIVE_INFINITY);
+    }
+    finally {
+      pool.shutdownNow();
+    }
+    result.setExpanded(expanded.get());
+    result.setGenerated(generated.get());
+    result.stopTimer();
+
+    if (goal.get() != null)
+      result.addSolution(goal.get());
+    return result;
+  }
+
+  /*
+   * Lowers the shared minimum f value out of bound.
+   */
+  private void updateMinoob(double f) {
+    long bits = Double.doubleToLongBits(f);
+    for (;;) {
+      long current = minoob.get();
+      if (f >= Double.longBitsToDouble(current) || 
+          minoob.compareAndSet(current, bits))
+        return;
+    }
+  }
+
+  /*
+   * Records the path to a goal unless another task found one first.  The
+   * path starts with a null operator for the initial state, as in Astar.
+   */
+  private void found(double cost, PathLink prefix, Operator[] ops, 
+      int depth) {
+    List<Operator> path = new ArrayList<>();
+    for (int d = depth - 1; d >= 0; d--)
+      path.add(ops[d]);
+    for (PathLink p = prefix; p != null; p = p.parent)
+      path.add(p.op);
+    path.add(null);
+    Collections.reverse(path);
+    SolutionImpl solution = new SolutionImpl();
+    solution.addOperators(path);
+    solution.setCost(cost);
+    if (goal.compareAndSet(null, solution))
+      stop = true;
+  }
+
+  /*
+   * The operators from the root to a task, as a list shared by siblings.
+   */
+  private static final class PathLink {
+    private final Operator op;
+    private final PathLink parent;
+    private PathLink(Operator op, PathLink parent) {
+      this.op = op;
+      this.parent = parent;
+    }
+  }
+
+  /*
+   * Searches the subtree below one node.
+   */
+  private final class Task extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final State state;
+    private final double g;
+    private final Operator pop;
+    private final int depth;
+    private final PathLink path;
+
+    // sequential search state
+    private long nexpanded, ngenerated;
+    private double nminoob = Double.POSITIVE_INFINITY;
+    private Operator[] ops;
+
+    private Task(State state, double g, Operator pop, int depth, 
+        PathLink path) {
+      this.state = state;
+      this.g = g;
+      this.pop = pop;
+      this.depth = depth;
+      this.path = path;
+    }
+
+    @Override
+    protected void compute() {
+      if (stop)
+        return;
+      if (depth >= splitDepth) {
+        ops = new Operator[64];
+        // the root is shared by every iteration
+        State s = (inplace != null && depth == 0) ? domain.copy(state) : state;
+        dfs(s, g, pop, 0);
+        expanded.addAndGet(nexpanded);
+        generated.addAndGet(ngenerated);
+        if (nminoob < Double.POSITIVE_INFINITY)
+          updateMinoob(nminoob);
+        return;
+      }
+
+      double f = g + weight*state.getH();
+      if (f > bound) {
+        updateMinoob(f);
+        return;
+      }
+      if (domain.isGoal(state)) {
+        found(f, path, null, 0);
+        return;
+      }
+      expanded.incrementAndGet();
+      List<Task> children = new ArrayList<>();
+      int numOps = domain.getNumOperators(state);
+      for (int i = 0; i < numOps; i++) {
+        Operator op = domain.getOperator(state, i);
+        if (op.equals(pop))
+          continue;
+        generated.incrementAndGet();
+        State child = domain.applyOperator(state, op);
+        children.add(new Task(child, g + op.getCost(state), 
+            op.reverse(state), depth + 1, new PathLink(op, path)));
+      }
+      invokeAll(children);
+    }
+
+    private boolean dfs(State parent, double cost, Operator pop, int d) {
+      if (stop)
+        return false;
+      double f = cost + weight*parent.getH();
+
+      if (f <= bound && domain.isGoal(parent)) {
+        found(f, path, ops, d);
+        return true;
+      }
+
+      if (f > bound) {
+        if (f < nminoob)
+          nminoob = f;
+        return false;
+      }
+
+      nexpanded++;
+      if (d == ops.length)
+        ops = Arrays.copyOf(ops, d << 1);
+      int numOps = domain.getNumOperators(parent);
+      for (int i = 0; i < numOps; i++) {
+        Operator op = domain.getOperator(parent, i);
+        if (op.equals(pop))
+          continue;
+
+        ngenerated++;
+        ops[d] = op;
+        boolean goal;
+        if (inplace != null) {
+          double edgeCost = op.getCost(parent);
+          Operator rev = op.reverse(parent);
+          int token = inplace.apply(parent, op);
+          goal = dfs(parent, edgeCost+cost, rev, d+1);
+          inplace.undo(parent, token);
+        }
+        else {
+          State child = domain.applyOperator(parent, op);
+          goal = dfs(child, op.getCost(parent)+cost, op.reverse(parent), d+1);
+        }
+        if (goal)
+          return true;
+      }
+      return false;
+    }
+
+  }
+
+}
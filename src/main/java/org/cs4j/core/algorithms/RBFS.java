@@ -20,10 +20,14 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import org.cs4j.core.SearchAlgorithm;
+import org.cs4j.core.InPlaceSearchDomain;
+import org.cs4j.core.LimitedSearchAlgorithm;
 import org.cs4j.core.SearchDomain;
 import org.cs4j.core.SearchDomain.Operator;
 import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchLimits;
+import org.cs4j.core.SearchMetrics;
+import org.cs4j.core.SearchMetrics.Phase;
 import org.cs4j.core.algorithms.SearchResultImpl.SolutionImpl;
 import org.cs4j.core.SearchResult;
 
@@ -32,10 +36,14 @@ import org.cs4j.core.SearchResult;
  * 
  * @author Matthew Hatem
  */
-public class RBFS implements SearchAlgorithm {
+public class RBFS implements LimitedSearchAlgorithm {
   
 	private SearchResultImpl result;
 	private SearchDomain domain;
+	private InPlaceSearchDomain inplace;
+	private Limiter limiter;
+	private SearchMetrics metrics;
+	private State current;
   private Node goal;
   private double weight;
   
@@ -51,18 +59,33 @@ public class RBFS implements SearchAlgorithm {
   
   @Override
   public SearchResult search(SearchDomain domain) {
+  	return search(domain, new SearchLimits());
+  }
+  
+  @Override
+  public SearchResult search(SearchDomain domain, SearchLimits limits) {
   	this.domain = domain;
+  	this.goal = null;
+  	this.path.clear();
+  	this.inplace = (domain instanceof InPlaceSearchDomain) 
+  			? (InPlaceSearchDomain)domain : null;
     
-  	result = new SearchResultImpl();
+  	result = new SearchResultImpl(this, domain);
     result.startTimer();
+    limiter = new Limiter(limits);
+    metrics = SearchMetrics.ENABLED ? result.collectMetrics() : null;
     
     State initialState = domain.initialState();
+    this.current = initialState;
     Node initialNode = new Node(initialState);
     initialNode.fPrime = weight*initialState.getH();
     rbfs(initialNode, Double.MAX_VALUE);
     
     result.stopTimer();
     
+    if (goal == null && limiter.isStopped()) {
+    	result.setStatus(limiter.getStatus());
+    }
     if (goal != null) {
     	SolutionImpl solution = new SolutionImpl();
       for (Node p = goal; p != null; p = p.parent) {
@@ -78,31 +101,51 @@ public class RBFS implements SearchAlgorithm {
   }
   
   private double rbfs(Node n, double u) {
-    if (goal != null) { 
+    if (goal != null || limiter.isStopped()) { 
       return Double.MAX_VALUE;
     }
     
+    // in place nodes share the current state
+    State state = (inplace != null) ? current : n.state;
+    
     // FIXME compute solution via parents
     // goal found
-    if (domain.isGoal(n.state)) {
+    boolean found = domain.isGoal(state);
+    if (SearchMetrics.ENABLED) metrics.lap(Phase.GOAL_TEST);
+    if (found) {
       goal = n;
       return n.f;
     }
     
+    if (limiter.isExceeded(result.expanded)) {
+      return Double.MAX_VALUE;
+    }
+    
     // generate all successors
     result.expanded++;
+    if (SearchMetrics.ENABLED) metrics.expanded(n.f, result.expanded);
     List<Node> succ = new ArrayList<Node>();
-    int numOps = domain.getNumOperators(n.state);
+    int numOps = domain.getNumOperators(state);
     for (int i = 0; i < numOps; i++) {
-      Operator op = domain.getOperator(n.state, i);
+      Operator op = domain.getOperator(state, i);
       if (op.equals(n.pop)) {
           continue;
       }
       result.generated++;
-      State childState = domain.applyOperator(n.state, op);
-      succ.add(new Node(childState, n, op, op.reverse(n.state)));
+      if (inplace != null) {
+      	Operator pop = op.reverse(state);
+      	int token = inplace.apply(state, op);
+      	succ.add(new Node(state, n, op, pop));
+      	inplace.undo(state, token);
+      }
+      else {
+      	State childState = domain.applyOperator(state, op);
+      	succ.add(new Node(childState, n, op, op.reverse(state)));
+      }
     }
     
+    if (SearchMetrics.ENABLED) metrics.lap(Phase.GENERATE);
+    
     // no successors
     if (succ.isEmpty()) {
       return Double.MAX_VALUE;
@@ -124,9 +167,17 @@ public class RBFS implements SearchAlgorithm {
     while (getRank(top, weight) <= u && top.fPrime < Double.MAX_VALUE) {
       double uPrime = (succ.size() == 1) 
           ? u : Math.min(getRank(succ.get(1), weight), u);
-      top.fPrime = rbfs(top, uPrime);
+      if (inplace != null) {
+      	int token = inplace.apply(state, top.op);
+      	top.fPrime = rbfs(top, uPrime);
+      	inplace.undo(state, token);
+      }
+      else {
+      	top.fPrime = rbfs(top, uPrime);
+      }
       Collections.sort(succ);
       top = succ.get(0);       
+      if (SearchMetrics.ENABLED) metrics.lap(Phase.SELECT);
     }
         
     return top.fPrime;    
@@ -151,7 +202,7 @@ public class RBFS implements SearchAlgorithm {
     	double cost = (op != null) ? op.getCost(state) : 0;
     	this.g = (parent != null) ? parent.g+cost : cost;
       this.f = g + (weight*state.getH());
-      this.state = domain.copy(state);
+      this.state = (inplace != null) ? null : domain.copy(state);
       this.parent = parent;
     	this.pop = pop;
       this.op = op;      
@@ -21,8 +21,14 @@ import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.cs4j.core.CachingSearchDomain;
+import org.cs4j.core.SearchAlgorithm;
+import org.cs4j.core.SearchDomain;
 import org.cs4j.core.SearchDomain.Operator;
+import org.cs4j.core.SearchMetrics;
 import org.cs4j.core.SearchResult;
+import org.cs4j.core.collections.HeuristicCache;
+import org.cs4j.core.jfr.SearchEvents;
 
 /**
  * The search result class.
@@ -41,6 +47,29 @@ class SearchResultImpl implements SearchResult {
   private long stopCpuTimeMillis;
   private List<Iteration> iterations = new ArrayList<>();
   private List<Solution> solutions = new ArrayList<>();
+  private HeuristicCache cache;
+  private long cacheHits;
+  private long cacheMisses;
+  private Status status;
+  private SearchMetrics metrics;
+  private String algorithmName;
+  private String domainName;
+  private Object event;
+  
+  public SearchResultImpl() {
+  }
+  
+  /*
+   * Records the heuristic cache statistics of the domain, if it has a
+   * heuristic cache, between startTimer and stopTimer, and names the
+   * search in flight recorder events.
+   */
+  public SearchResultImpl(SearchAlgorithm algorithm, SearchDomain domain) {
+    if (domain instanceof CachingSearchDomain)
+      cache = ((CachingSearchDomain)domain).getHeuristicCache();
+    algorithmName = algorithm.getClass().getSimpleName();
+    domainName = domain.getClass().getSimpleName();
+  }
   
   @Override
   public double getExpanded() {
@@ -67,6 +96,43 @@ class SearchResultImpl implements SearchResult {
 		return (long)((stopCpuTimeMillis - startCpuTimeMillis) * 0.000001);
 	}
 	
+	@Override
+	public long getHeuristicCacheHits() {
+		return cacheHits;
+	}
+	
+	@Override
+	public long getHeuristicCacheMisses() {
+		return cacheMisses;
+	}
+	
+	@Override
+	public SearchMetrics getMetrics() {
+		return metrics;
+	}
+	
+	@Override
+	public Status getStatus() {
+		if (status != null)
+			return status;
+		return solutions.isEmpty() ? Status.NO_SOLUTION : Status.SOLVED;
+	}
+	
+	/*
+	 * Starts collecting metrics, called by algorithms that collect them.
+	 */
+	SearchMetrics collectMetrics() {
+		metrics = new SearchMetrics();
+		return metrics;
+	}
+	
+	/*
+	 * Records that the search stopped before it finished.
+	 */
+	void setStatus(Status status) {
+		this.status = status;
+	}
+	
   public void addSolution(Solution solution) {
 		solutions.add(solution);
 	}
@@ -84,13 +150,25 @@ class SearchResultImpl implements SearchResult {
 	}
 		
 	public void startTimer() {
+		if (algorithmName != null)
+			event = SearchEvents.searchStarted(algorithmName, domainName);
 		this.startWallTimeMillis = System.currentTimeMillis();
 		this.startCpuTimeMillis = getCpuTime();
+		if (cache != null) {
+			cacheHits = -cache.getHits();
+			cacheMisses = -cache.getMisses();
+		}
 	}
 	
 	public void stopTimer() {
+		SearchEvents.searchFinished(event, expanded, generated);
+		event = null;
 		this.stopWallTimeMillis = System.currentTimeMillis();
 		this.stopCpuTimeMillis = getCpuTime();
+		if (cache != null) {
+			cacheHits += cache.getHits();
+			cacheMisses += cache.getMisses();
+		}
 	}
 	
   public long getCpuTime() {
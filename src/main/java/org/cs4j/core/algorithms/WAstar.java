@@ -36,7 +36,7 @@ public class WAstar extends Astar {
    * The Constructor
    * 
    * @param weight the weight
-   * @param heapType the type of heap to use (BIN | BUCKET)
+   * @param heapType the type of heap to use (BIN | BUCKET | QUANTIZED)
    */
   public WAstar(double weight, HeapType heapType) {
   	super(1.0, heapType);
@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.batch;
+
+import java.io.File;
+
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.SearchResult.Solution;
+
+/**
+ * The result of one instance of a batch.
+ *
+ * @author Matthew Hatem
+ */
+public final class BatchResult {
+
+  public enum Status {SOLVED, NO_SOLUTION, TIMEOUT, OUT_OF_MEMORY, ERROR};
+
+  private final File instance;
+  private final String algorithm;
+  private final Status status;
+  private final SearchResult result;
+  private final long wallTimeMillis;
+  private final long cpuTimeMillis;
+  private final String error;
+
+  BatchResult(File instance, String algorithm, Status status, 
+      SearchResult result, long wallTimeMillis, long cpuTimeMillis, 
+      String error) {
+    this.instance = instance;
+    this.algorithm = algorithm;
+    this.status = status;
+    this.result = result;
+    this.wallTimeMillis = wallTimeMillis;
+    this.cpuTimeMillis = cpuTimeMillis;
+    this.error = error;
+  }
+
+  public File getInstance() {
+    return instance;
+  }
+
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  /**
+   * Returns the search result, or null if the search did not return.
+   *
+   * @return the search result
+   */
+  public SearchResult getSearchResult() {
+    return result;
+  }
+
+  /**
+   * Returns the cost of the best solution, or NaN if there is none.
+   *
+   * @return the solution cost
+   */
+  public double getCost() {
+    Solution solution = bestSolution();
+    return (solution != null) ? solution.getCost() : Double.NaN;
+  }
+
+  /**
+   * Returns the length of the best solution, or -1 if there is none.
+   *
+   * @return the solution length
+   */
+  public int getLength() {
+    Solution solution = bestSolution();
+    return (solution != null) ? solution.getLength() : -1;
+  }
+
+  public long getExpanded() {
+    return (result != null) ? (long)result.getExpanded() : -1;
+  }
+
+  public long getGenerated() {
+    return (result != null) ? (long)result.getGenerated() : -1;
+  }
+
+  /**
+   * Returns the wall time of the run, including reading the instance.
+   *
+   * @return the wall time in milliseconds
+   */
+  public long getWallTimeMillis() {
+    return wallTimeMillis;
+  }
+
+  /**
+   * Returns the CPU time of the worker thread for the run.  Threads the
+   * algorithm starts itself are not included.
+   *
+   * @return the CPU time in milliseconds
+   */
+  public long getCpuTimeMillis() {
+    return cpuTimeMillis;
+  }
+
+  /**
+   * Returns the error message, or null.
+   *
+   * @return the error message
+   */
+  public String getError() {
+    return error;
+  }
+
+  /*
+   * Returns the cheapest solution, anytime searches return several.
+   */
+  private Solution bestSolution() {
+    if (result == null)
+      return null;
+    Solution best = null;
+    for (Solution s : result.getSolutions()) {
+      if (best == null || s.getCost() < best.getCost())
+        best = s;
+    }
+    return best;
+  }
+
+  @Override
+  public String toString() {
+    return instance+" "+algorithm+" "+status;
+  }
+
+}
@@ -0,0 +1,457 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.batch;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.cs4j.core.LimitedSearchAlgorithm;
+import org.cs4j.core.SearchAlgorithm;
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchLimits;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.algorithms.ARAstar;
+import org.cs4j.core.algorithms.Astar;
+import org.cs4j.core.algorithms.EES;
+import org.cs4j.core.algorithms.EPEAstar;
+import org.cs4j.core.algorithms.HDAstar;
+import org.cs4j.core.algorithms.IDAstar;
+import org.cs4j.core.algorithms.MM;
+import org.cs4j.core.algorithms.RBFS;
+import org.cs4j.core.algorithms.WAstar;
+import org.cs4j.core.algorithms.WIDAstar;
+import org.cs4j.core.algorithms.WRBFS;
+import org.cs4j.core.batch.BatchResult.Status;
+import org.cs4j.core.domains.FifteenPuzzle;
+import org.cs4j.core.domains.Pancakes;
+
+/**
+ * Runs a search algorithm on a suite of problem instances concurrently.
+ * Instances run on a fixed pool of worker threads and results are passed
+ * to a listener as each instance finishes.
+ *
+ * Each instance may be given a time limit and a memory budget.  Searches
+ * that honor limits are given the time limit and stop by themselves.
+ * Otherwise, when the time limit expires the worker thread is interrupted
+ * and the instance is reported as timed out once the search returns.  The
+ * memory budget is a reservation against the maximum heap: an instance
+ * only starts when its budget fits next to the budgets of the running
+ * instances, so the heap is not overcommitted.  A search that runs out of
+ * memory anyway is reported as such and the remaining instances continue.
+ *
+ * @author Matthew Hatem
+ */
+public final class BatchRunner {
+
+  private static final long MB = 1024 * 1024;
+
+  private final DomainFactory domainFactory;
+  private final AlgorithmFactory algorithmFactory;
+  private final int numThreads;
+  private long timeLimitMillis;
+  private int memoryLimitMb;
+
+  /**
+   * The constructor.
+   *
+   * @param domainFactory creates the domain for each instance
+   * @param algorithmFactory creates the algorithm for each instance
+   * @param numThreads the number of instances to run at once
+   */
+  public BatchRunner(DomainFactory domainFactory, 
+      AlgorithmFactory algorithmFactory, int numThreads) {
+    if (numThreads < 1)
+      throw new IllegalArgumentException("numThreads must be positive");
+    this.domainFactory = domainFactory;
+    this.algorithmFactory = algorithmFactory;
+    this.numThreads = numThreads;
+  }
+
+  /**
+   * Sets the time limit for each instance, or 0 for none.
+   *
+   * @param limit the time limit
+   * @param unit the unit of the time limit
+   */
+  public void setTimeLimit(long limit, TimeUnit unit) {
+    this.timeLimitMillis = unit.toMillis(limit);
+  }
+
+  /**
+   * Sets the memory budget for each instance, or 0 for none.  The budget
+   * is capped at the maximum heap size.
+   *
+   * @param megabytes the memory budget in megabytes
+   */
+  public void setMemoryLimit(int megabytes) {
+    this.memoryLimitMb = megabytes;
+  }
+
+  /**
+   * Runs every instance and passes each result to the listener as soon as
+   * the instance finishes.
+   *
+   * @param instances the instance files
+   * @param listener the listener, called on this thread
+   * @return the results in the order they finished
+   * @throws IOException if the listener fails
+   * @throws InterruptedException if this thread is interrupted
+   */
+  public List<BatchResult> run(List<File> instances, ResultListener listener)
+      throws IOException, InterruptedException {
+    ExecutorService executor = 
+        Executors.newFixedThreadPool(numThreads, daemonThreads("batch"));
+    ScheduledExecutorService watchdog = 
+        Executors.newSingleThreadScheduledExecutor(daemonThreads("watchdog"));
+    int heapMb = (int)Math.min(Runtime.getRuntime().maxMemory() / MB, 
+        Integer.MAX_VALUE);
+    Semaphore memory = new Semaphore(heapMb);
+    int reserve = Math.min(memoryLimitMb, heapMb);
+    List<BatchResult> results = new ArrayList<>(instances.size());
+    try {
+      CompletionService<BatchResult> completion = 
+          new ExecutorCompletionService<>(executor);
+      for (File instance : instances)
+        completion.submit(new Task(instance, watchdog, memory, reserve));
+      for (int i = 0; i < instances.size(); i++) {
+        BatchResult result;
+        try {
+          result = completion.take().get();
+        }
+        catch (ExecutionException e) {
+          // tasks catch everything, so this is a bug
+          throw new IllegalStateException(e.getCause());
+        }
+        results.add(result);
+        if (listener != null)
+          listener.onResult(result);
+      }
+    }
+    finally {
+      executor.shutdownNow();
+      watchdog.shutdownNow();
+    }
+    return results;
+  }
+
+  /*
+   * Runs one instance.
+   */
+  private final class Task implements Callable<BatchResult> {
+
+    private final File instance;
+    private final ScheduledExecutorService watchdog;
+    private final Semaphore memory;
+    private final int reserve;
+    private boolean done, expired;
+
+    private Task(File instance, ScheduledExecutorService watchdog, 
+        Semaphore memory, int reserve) {
+      this.instance = instance;
+      this.watchdog = watchdog;
+      this.memory = memory;
+      this.reserve = reserve;
+    }
+
+    @Override
+    public BatchResult call() throws InterruptedException {
+      memory.acquire(reserve);
+      final Thread worker = Thread.currentThread();
+      ScheduledFuture<?> alarm = null;
+      if (timeLimitMillis > 0) {
+        alarm = watchdog.schedule(new Runnable() {
+          @Override
+          public void run() {
+            synchronized (Task.this) {
+              if (!done) {
+                expired = true;
+                worker.interrupt();
+              }
+            }
+          }
+        }, timeLimitMillis, TimeUnit.MILLISECONDS);
+      }
+
+      ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      long startWall = System.currentTimeMillis();
+      long startCpu = bean.getCurrentThreadCpuTime();
+      String algorithm = null;
+      SearchResult result = null;
+      Status status;
+      String error = null;
+      try {
+        SearchAlgorithm algo = algorithmFactory.create();
+        algorithm = algo.getClass().getSimpleName();
+        SearchDomain domain = domainFactory.create(instance);
+        if (algo instanceof LimitedSearchAlgorithm) {
+          SearchLimits limits = new SearchLimits();
+          limits.setTimeLimit(timeLimitMillis, TimeUnit.MILLISECONDS);
+          result = ((LimitedSearchAlgorithm)algo).search(domain, limits);
+        }
+        else {
+          result = algo.search(domain);
+        }
+        status = status(result);
+      }
+      catch (OutOfMemoryError e) {
+        status = Status.OUT_OF_MEMORY;
+        error = String.valueOf(e.getMessage());
+      }
+      catch (Exception | StackOverflowError e) {
+        status = Status.ERROR;
+        error = e.toString();
+      }
+      finally {
+        synchronized (this) {
+          done = true;
+          if (expired)
+            status = Status.TIMEOUT;
+        }
+        if (alarm != null)
+          alarm.cancel(false);
+        Thread.interrupted();
+        memory.release(reserve);
+      }
+      long wall = System.currentTimeMillis() - startWall;
+      long cpu = (bean.getCurrentThreadCpuTime() - startCpu) / 1000000;
+      return new BatchResult(instance, algorithm, status, result, wall, cpu, 
+          error);
+    }
+
+  }
+
+  private static Status status(SearchResult result) {
+    switch (result.getStatus()) {
+    case SOLVED:
+      return Status.SOLVED;
+    case TIME_LIMIT:
+    case CPU_TIME_LIMIT:
+      return Status.TIMEOUT;
+    case MEMORY_LIMIT:
+      return Status.OUT_OF_MEMORY;
+    default:
+      // a limited search may still return a solution
+      return result.getSolutions().isEmpty() ? 
+          Status.NO_SOLUTION : Status.SOLVED;
+    }
+  }
+
+  private static ThreadFactory daemonThreads(final String name) {
+    return new ThreadFactory() {
+      private int count;
+      @Override
+      public synchronized Thread newThread(Runnable r) {
+        Thread t = new Thread(r, name+"-"+(count++));
+        t.setDaemon(true);
+        return t;
+      }
+    };
+  }
+
+  /**
+   * Runs a batch from the command line and writes the results to standard
+   * output.
+   *
+   * <pre>
+   * BatchRunner [options] instance|directory...
+   *   -domain fifteenpuzzle|pancakes   (default fifteenpuzzle)
+   *   -cost UNIT|SQRT|INVR|HEAVY       (default UNIT)
+   *   -algorithm astar|wastar|ees|idastar|widastar|rbfs|wrbfs|hdastar|arastar
+   *              |mm|epeastar
+   *   -weight w                        (default 1, 2 for ees, 2.5 for arastar)
+   *   -threads n                       (default available processors)
+   *   -search-threads n                (default processors / threads)
+   *   -timeout seconds                 (default none)
+   *   -memory megabytes                (default none)
+   *   -format csv|jsonl                (default csv)
+   * </pre>
+   *
+   * Directories are expanded to the files they contain.  Search threads
+   * are the threads of each parallel search, so that the instances running
+   * at once do not oversubscribe the processors by default.
+   *
+   * @param args the arguments
+   * @throws Exception if the batch fails
+   */
+  public static void main(String[] args) throws Exception {
+    String domain = "fifteenpuzzle", cost = "UNIT", algorithm = "astar";
+    String format = "CSV";
+    Double weight = null;
+    int cores = Runtime.getRuntime().availableProcessors();
+    int threads = cores;
+    int searchThreads = 0;
+    long timeout = 0;
+    int memory = 0;
+    List<File> instances = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (!arg.startsWith("-")) {
+        addInstances(new File(arg), instances);
+        continue;
+      }
+      if (i + 1 >= args.length)
+        usage("Missing value for "+arg);
+      String value = args[++i];
+      switch (arg) {
+      case "-domain": domain = value; break;
+      case "-cost": cost = value.toUpperCase(); break;
+      case "-algorithm": algorithm = value.toLowerCase(); break;
+      case "-weight": weight = Double.valueOf(value); break;
+      case "-threads": threads = Integer.parseInt(value); break;
+      case "-search-threads": searchThreads = Integer.parseInt(value); break;
+      case "-timeout": timeout = Long.parseLong(value); break;
+      case "-memory": memory = Integer.parseInt(value); break;
+      case "-format": format = value.toUpperCase(); break;
+      default: usage("Unknown option "+arg);
+      }
+    }
+    if (instances.isEmpty())
+      usage("No instances");
+    if (threads < 1)
+      usage("-threads must be positive");
+    if (searchThreads < 1)
+      searchThreads = Math.max(1, cores / threads);
+
+    BatchRunner runner = new BatchRunner(domainFactory(domain, cost), 
+        algorithmFactory(algorithm, weight, searchThreads), threads);
+    runner.setTimeLimit(timeout, TimeUnit.SECONDS);
+    runner.setMemoryLimit(memory);
+    Writer out = new OutputStreamWriter(System.out, "UTF-8");
+    try (ResultWriter writer = 
+        new ResultWriter(out, ResultWriter.Format.valueOf(format))) {
+      runner.run(instances, writer);
+    }
+  }
+
+  private static void addInstances(File file, List<File> instances) {
+    if (!file.isDirectory()) {
+      instances.add(file);
+      return;
+    }
+    File[] files = file.listFiles();
+    // numbered instances sort numerically
+    Arrays.sort(files, new Comparator<File>() {
+      @Override
+      public int compare(File a, File b) {
+        String x = a.getName(), y = b.getName();
+        if (x.length() != y.length() && x.matches("\\d+") && 
+            y.matches("\\d+"))
+          return x.length() - y.length();
+        return x.compareTo(y);
+      }
+    });
+    for (File f : files) {
+      if (f.isFile())
+        instances.add(f);
+    }
+  }
+
+  private static DomainFactory domainFactory(String name, final String cost) {
+    switch (name) {
+    case "fifteenpuzzle":
+      return new DomainFactory() {
+        @Override
+        public SearchDomain create(File instance) throws IOException {
+          try (InputStream is = new FileInputStream(instance)) {
+            return new FifteenPuzzle(is, 
+                FifteenPuzzle.COST_FUNCTION.valueOf(cost));
+          }
+        }
+      };
+    case "pancakes":
+      return new DomainFactory() {
+        @Override
+        public SearchDomain create(File instance) throws IOException {
+          try (InputStream is = new FileInputStream(instance)) {
+            return new Pancakes(is, Pancakes.COST_FUNCTION.valueOf(cost));
+          }
+        }
+      };
+    default:
+      usage("Unknown domain "+name);
+      return null;
+    }
+  }
+
+  private static AlgorithmFactory algorithmFactory(final String name, 
+      Double weight, final int threads) {
+    final double w = (weight != null) ? weight : 
+      (name.equals("ees") ? 2.0 : (name.equals("arastar") ? 2.5 : 1.0));
+    switch (name) {
+    case "astar": case "wastar": case "ees": case "idastar": 
+    case "widastar": case "rbfs": case "wrbfs": case "hdastar": 
+    case "arastar": case "mm": case "epeastar":
+      break;
+    default:
+      usage("Unknown algorithm "+name);
+    }
+    return new AlgorithmFactory() {
+      @Override
+      public SearchAlgorithm create() {
+        switch (name) {
+        case "astar": return new Astar();
+        case "wastar": return new WAstar(w);
+        case "ees": return new EES(w);
+        case "idastar": return new IDAstar();
+        case "widastar": return new WIDAstar(w);
+        case "rbfs": return new RBFS();
+        case "wrbfs": return new WRBFS(w);
+        case "arastar": return new ARAstar(w, 0.5);
+        case "mm": return new MM();
+        case "epeastar": return new EPEAstar();
+        default: return new HDAstar(threads);
+        }
+      }
+    };
+  }
+
+  private static void usage(String message) {
+    PrintStream err = System.err;
+    err.println(message);
+    err.println("usage: BatchRunner [-domain fifteenpuzzle|pancakes] "+
+        "[-cost UNIT|SQRT|INVR|HEAVY] [-algorithm astar|wastar|ees|idastar|"+
+        "widastar|rbfs|wrbfs|hdastar|arastar|mm|epeastar] [-weight w] "+
+        "[-threads n] [-search-threads n] [-timeout seconds] "+
+        "[-memory megabytes] "+
+        "[-format csv|jsonl] "+
+        "instance|directory...");
+    System.exit(2);
+  }
+
+}
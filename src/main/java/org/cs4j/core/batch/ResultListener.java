@@ -0,0 +1,37 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.batch;
+
+import java.io.IOException;
+
+/**
+ * Receives batch results as each instance finishes.  Results are
+ * delivered one at a time on the thread that called the batch runner.
+ *
+ * @author Matthew Hatem
+ */
+public interface ResultListener {
+
+  /**
+   * Called when an instance finishes.
+   *
+   * @param result the result
+   * @throws IOException if the result cannot be recorded
+   */
+  public void onResult(BatchResult result) throws IOException;
+
+}
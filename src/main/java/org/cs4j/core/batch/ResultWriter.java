@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes batch results as CSV or JSON lines, one line per instance,
+ * flushing after each so results can be followed while a batch runs.
+ *
+ * @author Matthew Hatem
+ */
+public final class ResultWriter implements ResultListener, Closeable {
+
+  public enum Format {CSV, JSONL};
+
+  private static final String[] COLUMNS = {"instance", "algorithm", 
+    "status", "cost", "length", "expanded", "generated", "wall_ms", 
+    "cpu_ms", "error"};
+
+  private final Writer out;
+  private final Format format;
+
+  /**
+   * The constructor.  A CSV header is written immediately.
+   *
+   * @param out the writer
+   * @param format the format
+   * @throws IOException if the header cannot be written
+   */
+  public ResultWriter(Writer out, Format format) throws IOException {
+    this.out = out;
+    this.format = format;
+    if (format == Format.CSV) {
+      for (int i = 0; i < COLUMNS.length; i++) {
+        out.write((i > 0) ? "," : "");
+        out.write(COLUMNS[i]);
+      }
+      out.write('\n');
+      out.flush();
+    }
+  }
+
+  @Override
+  public void onResult(BatchResult r) throws IOException {
+    Object[] values = {r.getInstance().getPath(), r.getAlgorithm(), 
+        r.getStatus(), Double.isNaN(r.getCost()) ? null : r.getCost(), 
+        r.getLength(), r.getExpanded(), r.getGenerated(), 
+        r.getWallTimeMillis(), r.getCpuTimeMillis(), r.getError()};
+    StringBuilder sb = new StringBuilder();
+    if (format == Format.CSV) {
+      for (int i = 0; i < values.length; i++) {
+        if (i > 0) sb.append(',');
+        if (values[i] != null) csv(sb, values[i].toString());
+      }
+    }
+    else {
+      sb.append('{');
+      for (int i = 0; i < values.length; i++) {
+        if (i > 0) sb.append(',');
+        json(sb, COLUMNS[i]);
+        sb.append(':');
+        if (values[i] == null) sb.append("null");
+        else if (values[i] instanceof Number) sb.append(values[i]);
+        else json(sb, values[i].toString());
+      }
+      sb.append('}');
+    }
+    sb.append('\n');
+    out.write(sb.toString());
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+
+  private static void csv(StringBuilder sb, String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && 
+        value.indexOf('\n') < 0) {
+      sb.append(value);
+      return;
+    }
+    sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+  }
+
+  private static void json(StringBuilder sb, String value) {
+    sb.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+      case '"': sb.append("\\\""); break;
+      case '\\': sb.append("\\\\"); break;
+      case '\n': sb.append("\\n"); break;
+      case '\r': sb.append("\\r"); break;
+      case '\t': sb.append("\\t"); break;
+      default:
+        if (c < 0x20) sb.append(String.format("\\u%04x", (int)c));
+        else sb.append(c);
+      }
+    }
+    sb.append('"');
+  }
+
+}
@@ -19,6 +19,8 @@ package org.cs4j.core.collections;
 import java.util.ArrayList;
 import java.util.Comparator;
 
+import org.cs4j.core.jfr.SearchEvents;
+
 /**
  * An implementation of a binary heap where elements are aware of their 
  * location (index) in the heap.
@@ -30,9 +32,10 @@ public class BinHeap<E extends SearchQueueElement> implements SearchQueue<E> {
   final ArrayList<E> heap;
 	private final Comparator<E> cmp;
 	private final int key;
+	private int capacity = 16;
 	
 	public BinHeap(Comparator<E> cmp, int key) {
-	  this.heap = new ArrayList<E>();
+	  this.heap = new ArrayList<E>(capacity);
 		this.cmp = cmp;
 		this.key = key;
 	}
@@ -79,6 +82,12 @@ public class BinHeap<E extends SearchQueueElement> implements SearchQueue<E> {
 	
 	@Override
 	public void add(E e) {
+	  if (heap.size() == capacity) {
+	    // grow explicitly so that the resize can be reported
+	    capacity <<= 1;
+	    heap.ensureCapacity(capacity);
+	    SearchEvents.heapResized(BinHeap.class, heap.size(), capacity);
+	  }
 	  heap.add(e);
 	  setIndex(e, heap.size()-1);
 	  pullUp(heap.size()-1);
@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.collections;
+
+import java.util.Arrays;
+
+import org.cs4j.core.collections.BucketHeap.BucketHeapElement;
+
+/**
+ * A bin of the bucket heaps.  Elements know their position in the bin
+ * (see intrusive data structures), so any element is removed in constant
+ * time by moving the last element into its place.  Elements are popped
+ * from the end.
+ *
+ * @author Matthew Hatem
+ */
+final class BucketBin<E extends BucketHeapElement> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private Object[] elements = new Object[INITIAL_CAPACITY];
+  private int size;
+  private final int key;
+
+  BucketBin(int key) {
+    this.key = key;
+  }
+
+  void add(E e) {
+    if (size == elements.length)
+      elements = Arrays.copyOf(elements, size << 1);
+    e.setBinIndex(key, size);
+    elements[size++] = e;
+  }
+
+  @SuppressWarnings("unchecked")
+  E peek() {
+    return (E)elements[size - 1];
+  }
+
+  E pop() {
+    E e = peek();
+    elements[--size] = null;
+    e.setBinIndex(key, -1);
+    return e;
+  }
+
+  @SuppressWarnings("unchecked")
+  void remove(E e) {
+    int i = e.getBinIndex(key);
+    if (i < 0 || i >= size || elements[i] != e)
+      throw new IllegalArgumentException();
+    E last = (E)elements[--size];
+    elements[size] = null;
+    if (last != e) {
+      elements[i] = last;
+      last.setBinIndex(key, i);
+    }
+    e.setBinIndex(key, -1);
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+}
@@ -16,8 +16,7 @@
  */
 package org.cs4j.core.collections;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import org.cs4j.core.collections.BucketHeap.BucketHeapElement;
 
@@ -92,11 +91,7 @@ public final class BucketHeap<E extends BucketHeapElement> implements SearchQueu
   
 	@Override
 	public void update(E e) {
-		int p0 = (int)e.getIndex(key);
-		if (p0 > buckets.length-1 || p0 < 0)
-			throw new IllegalArgumentException();
-		Bucket<E> b = buckets[p0];
-		b.remove(e);
+		remove(e);
 		add(e);
 	}
 	
@@ -107,6 +102,9 @@ public final class BucketHeap<E extends BucketHeapElement> implements SearchQueu
 			throw new IllegalArgumentException();
 		Bucket<E> b = buckets[p0];
 		b.remove(e);
+		e.setIndex(key, -1);
+		e.setSecondaryIndex(key, -1);
+		fill--;
 		return e;
 	}
 
@@ -129,21 +127,24 @@ public final class BucketHeap<E extends BucketHeapElement> implements SearchQueu
 
   private static final class Bucket<E extends BucketHeapElement> {
     private int fill, max;
-    private ArrayList[] bins;
+    private BucketBin[] bins;
     private int key;
     
     Bucket(int size, int key) {
-      bins = new ArrayList[size];
+      bins = new BucketBin[size];
       this.key = key;
     }
         
     private void push(E n, int p) {
-       if (p > max) {
+      if (p >= bins.length) {
+        bins = Arrays.copyOf(bins, Math.max(p + 1, bins.length << 1));
+      }
+      if (p > max) {
         max = p; 
       }
-      ArrayList<E> binP = bins[p];
+      BucketBin<E> binP = bins[p];
       if (binP == null) {
-        binP = new ArrayList<E>(10000);
+        binP = new BucketBin<E>(key);
         bins[p] = binP;
       }
       binP.add(n);
@@ -152,35 +153,29 @@ public final class BucketHeap<E extends BucketHeapElement> implements SearchQueu
     
     private E pop() {
       for ( ; max > 0; max--) {
-        ArrayList<E> maxBin = bins[max];
+        BucketBin<E> maxBin = bins[max];
         if (maxBin != null && !maxBin.isEmpty()) break;
       }
-      ArrayList<E> maxBin = bins[max];
-      int last = maxBin.size()-1;
-      E n = maxBin.get(last);
-      maxBin.remove(last);
+      BucketBin<E> maxBin = bins[max];
       fill--;
-      return n;
+      return maxBin.pop();
     }
     
     private E peek() {
     	int max = this.max;
       for ( ; max > 0; max--) {
-        ArrayList<E> maxBin = bins[max];
+        BucketBin<E> maxBin = bins[max];
         if (maxBin != null && !maxBin.isEmpty()) break;
       }
-      ArrayList<E> maxBin = bins[max];
-      int last = maxBin.size()-1;
-      return maxBin.get(last);
+      BucketBin<E> maxBin = bins[max];
+      return maxBin.peek();
     }
     
     private void remove(E e) {
   		int p1 = (int)e.getSecondaryIndex(key);
-  		if (p1 > bins.length-1 || p1 < 0)
-  			throw new IllegalArgumentException();
-  		List<E> list = bins[p1];
-  		if (!list.remove(e))
+  		if (p1 > bins.length-1 || p1 < 0 || bins[p1] == null)
   			throw new IllegalArgumentException();
+  		bins[p1].remove(e);
   		fill--;
     }
     
@@ -195,6 +190,10 @@ public final class BucketHeap<E extends BucketHeapElement> implements SearchQueu
   	
   	public int getSecondaryIndex(int key);
   	
+  	public void setBinIndex(int key, int index);
+  	
+  	public int getBinIndex(int key);
+  	
   	public double getRank(int level);
   	
   }
@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.collections;
+
+import java.util.Arrays;
+
+import org.cs4j.core.collections.BucketHeap.BucketHeapElement;
+import org.cs4j.core.jfr.SearchEvents;
+
+/**
+ * An implicit d-ary heap ordered on low primary rank (f) with ties broken
+ * on high secondary rank (g).  The ranks of each element are read once when
+ * it is added or updated and are kept in primitive arrays parallel to the
+ * element array, so comparisons never touch the elements themselves.
+ * Sifting is iterative and moves a hole rather than swapping, so each
+ * element that moves is written, and its index updated, only once.
+ *
+ * With an arity of 2 elements are ordered exactly as they are by
+ * {@link BinHeap} with the same comparison.  Wider heaps are shallower and
+ * scan children that share a cache line.
+ *
+ * @author Matthew Hatem
+ */
+public final class DaryHeap<E extends BucketHeapElement> implements SearchQueue<E> {
+
+  public static final int DEFAULT_ARITY = 4;
+
+  private final int key;
+  private final int shift;
+  private Object[] heap;
+  private double[] f;
+  private double[] g;
+  private int fill;
+
+  /**
+   * The constructor.
+   *
+   * @param key the key for this heap
+   */
+  public DaryHeap(int key) {
+    this(DEFAULT_ARITY, key);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param arity the number of children per node (2 | 4 | 8)
+   * @param key the key for this heap
+   */
+  public DaryHeap(int arity, int key) {
+    if (arity != 2 && arity != 4 && arity != 8)
+      throw new IllegalArgumentException("Arity must be 2, 4 or 8");
+    this.shift = Integer.numberOfTrailingZeros(arity);
+    this.key = key;
+    this.heap = new Object[64];
+    this.f = new double[64];
+    this.g = new double[64];
+  }
+
+  @Override
+  public int getKey() {
+    return key;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return fill == 0;
+  }
+
+  @Override
+  public int size() {
+    return fill;
+  }
+
+  @Override
+  public void add(E e) {
+    if (fill == heap.length) {
+      int capacity = fill << 1;
+      heap = Arrays.copyOf(heap, capacity);
+      f = Arrays.copyOf(f, capacity);
+      g = Arrays.copyOf(g, capacity);
+      SearchEvents.heapResized(DaryHeap.class, fill, capacity);
+    }
+    siftUp(fill++, e, e.getRank(0), e.getRank(1));
+  }
+
+  @Override
+  public E poll() {
+    if (fill == 0)
+      return null;
+    E e = elementAt(0);
+    e.setIndex(key, -1);
+    removeHole(0);
+    return e;
+  }
+
+  @Override
+  public E peek() {
+    if (fill == 0)
+      return null;
+    return elementAt(0);
+  }
+
+  @Override
+  public void update(E e) {
+    int i = e.getIndex(key);
+    if (i < 0 || i >= fill || heap[i] != e)
+      throw new IllegalArgumentException();
+    double ef = e.getRank(0);
+    double eg = e.getRank(1);
+    if (i > 0 && less(ef, eg, parent(i)))
+      siftUp(i, e, ef, eg);
+    else
+      siftDown(i, e, ef, eg);
+  }
+
+  @Override
+  public E remove(E e) {
+    int i = e.getIndex(key);
+    if (i < 0 || i >= fill || heap[i] != e)
+      throw new IllegalArgumentException();
+    e.setIndex(key, -1);
+    removeHole(i);
+    return e;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(heap, 0, fill, null);
+    fill = 0;
+  }
+
+  /*
+   * Fills the hole at i with the last element.
+   */
+  private void removeHole(int i) {
+    int last = --fill;
+    E e = elementAt(last);
+    double ef = f[last];
+    double eg = g[last];
+    heap[last] = null;
+    if (i == last)
+      return;
+    if (i > 0 && less(ef, eg, parent(i)))
+      siftUp(i, e, ef, eg);
+    else
+      siftDown(i, e, ef, eg);
+  }
+
+  /*
+   * Moves the hole at i up until e can be placed in it.
+   */
+  private void siftUp(int i, E e, double ef, double eg) {
+    while (i > 0) {
+      int p = parent(i);
+      if (!less(ef, eg, p))
+        break;
+      move(p, i);
+      i = p;
+    }
+    place(i, e, ef, eg);
+  }
+
+  /*
+   * Moves the hole at i down until e can be placed in it.
+   */
+  private void siftDown(int i, E e, double ef, double eg) {
+    int c;
+    while ((c = (i << shift) + 1) < fill) {
+      int end = Math.min(c + (1 << shift), fill);
+      int min = c;
+      for (int j = c + 1; j < end; j++) {
+        if (less(f[j], g[j], min))
+          min = j;
+      }
+      if (!less(f[min], g[min], ef, eg))
+        break;
+      move(min, i);
+      i = min;
+    }
+    place(i, e, ef, eg);
+  }
+
+  private boolean less(double af, double ag, int j) {
+    return less(af, ag, f[j], g[j]);
+  }
+
+  private static boolean less(double af, double ag, double bf, double bg) {
+    return af < bf || (af == bf && ag > bg);
+  }
+
+  private void move(int from, int to) {
+    Object o = heap[from];
+    heap[to] = o;
+    f[to] = f[from];
+    g[to] = g[from];
+    ((SearchQueueElement)o).setIndex(key, to);
+  }
+
+  private void place(int i, E e, double ef, double eg) {
+    heap[i] = e;
+    f[i] = ef;
+    g[i] = eg;
+    e.setIndex(key, i);
+  }
+
+  @SuppressWarnings("unchecked")
+  private E elementAt(int i) {
+    return (E)heap[i];
+  }
+
+  private int parent(int i) {
+    return (i - 1) >>> shift;
+  }
+
+}
@@ -2,6 +2,8 @@ package org.cs4j.core.collections;
 
 import java.util.Comparator;
 
+import org.cs4j.core.jfr.SearchEvents;
+
 public class GEQueue<E extends SearchQueueElement & RBTreeElement<E, E>> {
 //public class GEQueue<E extends RBTreeElement<E, E> & MinHeapable> {
   
@@ -56,6 +58,8 @@ public class GEQueue<E extends SearchQueueElement & RBTreeElement<E, E>> {
         
     // did best f^ change?  
     if (oldBest == null || fHatChange != 0) {
+      Object event = SearchEvents.focalUpdateStarted();
+      int size = focal.size();
       // did best f^ go down?
       if (oldBest != null && fHatChange < 0) {
         open.visit(newBest, oldBest, REMOVE, focalVisitor);
@@ -64,6 +68,7 @@ public class GEQueue<E extends SearchQueueElement & RBTreeElement<E, E>> {
       else if (oldBest == null || oldBest.getNode() == null) {
         open.visit(oldBest, newBest, ADD, focalVisitor);
       }
+      SearchEvents.focalUpdated(event, size, focal.size());
     }
     //verifyFocal();
   }
@@ -0,0 +1,218 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.collections;
+
+/**
+ * A fixed size cache of heuristic (h) and distance (d) estimates keyed by
+ * packed state.  The table is set associative: a key maps to one set of
+ * eight slots and a full set evicts with the clock (second chance)
+ * algorithm.  Sets are grouped into stripes, each guarded by its own
+ * lock, so the cache can be shared by parallel searches.
+ *
+ * @author Matthew Hatem
+ */
+public final class HeuristicCache {
+
+  private static final int WAYS = 8;
+  private static final byte OCCUPIED = 1;
+  private static final byte REFERENCED = 2;
+
+  private final Stripe[] stripes;
+  private final int stripeMask;
+  private final int stripeBits;
+  private final int setMask;
+
+  /**
+   * The constructor.
+   *
+   * @param capacity the number of entries, rounded up to a power of two
+   */
+  public HeuristicCache(int capacity) {
+    this(capacity, 64);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param capacity the number of entries, rounded up to a power of two
+   * @param numStripes the number of locks, rounded up to a power of two
+   */
+  public HeuristicCache(int capacity, int numStripes) {
+    if (capacity < 1 || numStripes < 1)
+      throw new IllegalArgumentException();
+    int sets = Math.max(1, roundUp(capacity) / WAYS);
+    int nstripes = Math.min(roundUp(numStripes), sets);
+    this.stripes = new Stripe[nstripes];
+    for (int i = 0; i < nstripes; i++)
+      stripes[i] = new Stripe(sets / nstripes);
+    this.stripeMask = nstripes - 1;
+    this.stripeBits = Integer.numberOfTrailingZeros(nstripes);
+    this.setMask = sets / nstripes - 1;
+  }
+
+  /**
+   * Looks up the estimates for the specified state.
+   *
+   * @param key the packed state
+   * @param hd receives h in hd[0] and d in hd[1] on a hit
+   * @return true on a hit, false otherwise
+   */
+  public boolean get(long key, double[] hd) {
+    long hash = mix(key);
+    Stripe stripe = stripes[(int)hash & stripeMask];
+    int base = ((int)(hash >>> stripeBits) & setMask) * WAYS;
+    synchronized (stripe) {
+      for (int i = base; i < base + WAYS; i++) {
+        if ((stripe.flags[i] & OCCUPIED) != 0 && stripe.keys[i] == key) {
+          stripe.flags[i] |= REFERENCED;
+          hd[0] = stripe.h[i];
+          hd[1] = stripe.d[i];
+          stripe.hits++;
+          return true;
+        }
+      }
+      stripe.misses++;
+      return false;
+    }
+  }
+
+  /**
+   * Caches the estimates for the specified state, evicting another entry
+   * of the same set if the set is full.
+   *
+   * @param key the packed state
+   * @param h the heuristic estimate
+   * @param d the distance estimate
+   */
+  public void put(long key, double h, double d) {
+    long hash = mix(key);
+    Stripe stripe = stripes[(int)hash & stripeMask];
+    int set = (int)(hash >>> stripeBits) & setMask;
+    int base = set * WAYS;
+    synchronized (stripe) {
+      int slot = -1;
+      for (int i = base; i < base + WAYS; i++) {
+        if ((stripe.flags[i] & OCCUPIED) == 0) {
+          if (slot < 0) slot = i;
+        }
+        else if (stripe.keys[i] == key) {
+          slot = i;
+          break;
+        }
+      }
+      if (slot < 0) {
+        // second chance: clear referenced bits until an entry has none
+        int hand = stripe.hands[set];
+        while ((stripe.flags[base + hand] & REFERENCED) != 0) {
+          stripe.flags[base + hand] &= ~REFERENCED;
+          hand = (hand + 1) & (WAYS - 1);
+        }
+        slot = base + hand;
+        stripe.hands[set] = (byte)((hand + 1) & (WAYS - 1));
+        stripe.evictions++;
+      }
+      stripe.keys[slot] = key;
+      stripe.h[slot] = h;
+      stripe.d[slot] = d;
+      stripe.flags[slot] = OCCUPIED;
+    }
+  }
+
+  /**
+   * Returns the number of lookups that found their state.
+   *
+   * @return the number of hits
+   */
+  public long getHits() {
+    long n = 0;
+    for (Stripe s : stripes) {
+      synchronized (s) { n += s.hits; }
+    }
+    return n;
+  }
+
+  /**
+   * Returns the number of lookups that did not find their state.
+   *
+   * @return the number of misses
+   */
+  public long getMisses() {
+    long n = 0;
+    for (Stripe s : stripes) {
+      synchronized (s) { n += s.misses; }
+    }
+    return n;
+  }
+
+  /**
+   * Returns the number of entries evicted to make room for new ones.
+   *
+   * @return the number of evictions
+   */
+  public long getEvictions() {
+    long n = 0;
+    for (Stripe s : stripes) {
+      synchronized (s) { n += s.evictions; }
+    }
+    return n;
+  }
+
+  /**
+   * Returns the number of entries the cache holds when full.
+   *
+   * @return the capacity
+   */
+  public int capacity() {
+    return stripes.length * (setMask + 1) * WAYS;
+  }
+
+  /*
+   * Mixes the bits of the key (the murmur3 finalizer).  The stripe is
+   * taken from the low bits of the hash and the set from the bits above
+   * them, so every set of every stripe can be reached.
+   */
+  private static long mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return key;
+  }
+
+  private static int roundUp(int n) {
+    int p = Integer.highestOneBit(n);
+    return (p == n) ? n : p << 1;
+  }
+
+  private static final class Stripe {
+    private final long[] keys;
+    private final double[] h, d;
+    private final byte[] flags;
+    private final byte[] hands;
+    private long hits, misses, evictions;
+
+    private Stripe(int sets) {
+      keys = new long[sets * WAYS];
+      h = new double[sets * WAYS];
+      d = new double[sets * WAYS];
+      flags = new byte[sets * WAYS];
+      hands = new byte[sets];
+    }
+  }
+
+}
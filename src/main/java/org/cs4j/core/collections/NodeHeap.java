@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.collections;
+
+import java.util.Arrays;
+
+import org.cs4j.core.jfr.SearchEvents;
+
+/**
+ * A binary heap of node handles ordered on f = g + weight * h, breaking
+ * ties on high g.  The g and h values and heap positions live in the
+ * node store, so the heap itself is a single int array.
+ *
+ * @author Matthew Hatem
+ */
+public final class NodeHeap {
+
+  private final NodeStore store;
+  private final double weight;
+  private int[] heap = new int[1024];
+  private int size;
+
+  /**
+   * The constructor.
+   *
+   * @param store the node store
+   * @param weight the weight on h
+   */
+  public NodeHeap(NodeStore store, double weight) {
+    this.store = store;
+    this.weight = weight;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the f value of the specified node.
+   *
+   * @param handle the node handle
+   * @return the f value
+   */
+  public double getF(int handle) {
+    return store.getG(handle) + (weight*store.getH(handle));
+  }
+
+  public void add(int handle) {
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, size << 1);
+      SearchEvents.heapResized(NodeHeap.class, size, heap.length);
+    }
+    heap[size] = handle;
+    store.setHeapIndex(handle, size);
+    pullUp(size++);
+  }
+
+  /**
+   * Removes and returns the best node, or NONE if the heap is empty.
+   *
+   * @return the handle of the best node or NONE
+   */
+  public int poll() {
+    if (size == 0)
+      return NodeStore.NONE;
+    int e = heap[0];
+    store.setHeapIndex(e, -1);
+    if (--size > 0) {
+      int b = heap[size];
+      heap[0] = b;
+      store.setHeapIndex(b, 0);
+      pushDown(0);
+    }
+    return e;
+  }
+
+  /**
+   * Restores the heap order after the g or h value of the specified node
+   * changed.
+   *
+   * @param handle the node handle
+   */
+  public void update(int handle) {
+    int i = store.getHeapIndex(handle);
+    if (i < 0 || i >= size)
+      throw new IllegalArgumentException();
+    i = pullUp(i);
+    pushDown(i);
+  }
+
+  public void clear() {
+    for (int i = 0; i < size; i++)
+      store.setHeapIndex(heap[i], -1);
+    size = 0;
+  }
+
+  private int pullUp(int i) {
+    while (i > 0) {
+      int p = (i - 1) >>> 1;
+      if (compare(heap[i], heap[p]) >= 0)
+        break;
+      swap(i, p);
+      i = p;
+    }
+    return i;
+  }
+
+  private void pushDown(int i) {
+    for (;;) {
+      int l = 2*i + 1, r = l + 1;
+      int sml = i;
+      if (l < size && compare(heap[l], heap[i]) < 0)
+        sml = l;
+      if (r < size && compare(heap[r], heap[sml]) < 0)
+        sml = r;
+      if (sml == i)
+        return;
+      swap(i, sml);
+      i = sml;
+    }
+  }
+
+  private int compare(int a, int b) {
+    double fa = getF(a), fb = getF(b);
+    if (fa < fb) return -1;
+    if (fa > fb) return 1;
+    double ga = store.getG(a), gb = store.getG(b);
+    if (ga > gb) return -1;
+    if (ga < gb) return 1;
+    return 0;
+  }
+
+  private void swap(int i, int j) {
+    int a = heap[i], b = heap[j];
+    heap[i] = b;
+    store.setHeapIndex(b, i);
+    heap[j] = a;
+    store.setHeapIndex(a, j);
+  }
+
+}
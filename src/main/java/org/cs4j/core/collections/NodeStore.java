@@ -0,0 +1,236 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.collections;
+
+import java.util.Arrays;
+
+/**
+ * A store of search nodes kept in parallel primitive arrays and addressed
+ * by int handles.  Each node holds its packed state, g and h values, the
+ * handle of its parent, the index of the operator that generated it and
+ * its position in the open list.  The store also indexes nodes by packed
+ * state, so it doubles as the closed list.
+ *
+ * Arrays are allocated in fixed size pages, so the store grows without
+ * copying and a node costs about 40 bytes, index included, instead of
+ * the object headers, references and index arrays of a node object.
+ * Nodes are never removed.
+ *
+ * @author Matthew Hatem
+ */
+public final class NodeStore {
+
+  /**
+   * The handle of no node.
+   */
+  public static final int NONE = -1;
+
+  /**
+   * The largest operator index a node can record.
+   */
+  public static final int MAX_OPERATOR = 254;
+
+  private static final int PAGE_BITS = 16;
+  private static final int PAGE_SIZE = 1 << PAGE_BITS;
+  private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+  private long[][] packed = new long[16][];
+  private double[][] g = new double[16][];
+  private double[][] h = new double[16][];
+  private int[][] parent = new int[16][];
+  private byte[][] op = new byte[16][];
+  private int[][] heapIndex = new int[16][];
+  private int size;
+
+  // handle+1 of the node in each slot, 0 marks an empty slot
+  private int[] table;
+  private int mask;
+  private int resizeAt;
+
+  /**
+   * The constructor.
+   */
+  public NodeStore() {
+    allocateTable(1024);
+  }
+
+  /**
+   * Adds a node.  The store must not already contain the packed state.
+   *
+   * @param packed the packed state
+   * @param g the cost of the path to the node
+   * @param h the heuristic estimate
+   * @param parent the handle of the parent or NONE
+   * @param op the index of the operator that generated the node
+   * @return the handle of the new node
+   */
+  public int add(long packed, double g, double h, int parent, int op) {
+    if (op < 0 || op > MAX_OPERATOR)
+      throw new IllegalArgumentException("Operator index out of range: "+op);
+    int handle = size;
+    int page = handle >>> PAGE_BITS;
+    if (page == this.packed.length)
+      growDirectory();
+    if (this.packed[page] == null)
+      allocatePage(page);
+    int i = handle & PAGE_MASK;
+    this.packed[page][i] = packed;
+    this.g[page][i] = g;
+    this.h[page][i] = h;
+    this.parent[page][i] = parent;
+    this.op[page][i] = (byte)op;
+    this.heapIndex[page][i] = -1;
+    size++;
+
+    int slot = LongNodeMap.hash(packed) & mask;
+    while (table[slot] != 0)
+      slot = (slot + 1) & mask;
+    table[slot] = handle + 1;
+    if (size > resizeAt)
+      rehash(table.length << 1);
+    return handle;
+  }
+
+  /**
+   * Returns the handle of the node with the specified packed state, or
+   * NONE if there is none.
+   *
+   * @param packed the packed state
+   * @return the handle or NONE
+   */
+  public int find(long packed) {
+    int slot = LongNodeMap.hash(packed) & mask;
+    int entry;
+    while ((entry = table[slot]) != 0) {
+      if (getPacked(entry - 1) == packed)
+        return entry - 1;
+      slot = (slot + 1) & mask;
+    }
+    return NONE;
+  }
+
+  public long getPacked(int handle) {
+    return packed[handle >>> PAGE_BITS][handle & PAGE_MASK];
+  }
+
+  public double getG(int handle) {
+    return g[handle >>> PAGE_BITS][handle & PAGE_MASK];
+  }
+
+  public void setG(int handle, double value) {
+    g[handle >>> PAGE_BITS][handle & PAGE_MASK] = value;
+  }
+
+  public double getH(int handle) {
+    return h[handle >>> PAGE_BITS][handle & PAGE_MASK];
+  }
+
+  public void setH(int handle, double value) {
+    h[handle >>> PAGE_BITS][handle & PAGE_MASK] = value;
+  }
+
+  public int getParent(int handle) {
+    return parent[handle >>> PAGE_BITS][handle & PAGE_MASK];
+  }
+
+  public void setParent(int handle, int value) {
+    parent[handle >>> PAGE_BITS][handle & PAGE_MASK] = value;
+  }
+
+  public int getOperator(int handle) {
+    return op[handle >>> PAGE_BITS][handle & PAGE_MASK] & 0xFF;
+  }
+
+  public void setOperator(int handle, int value) {
+    if (value < 0 || value > MAX_OPERATOR)
+      throw new IllegalArgumentException("Operator index out of range: "+value);
+    op[handle >>> PAGE_BITS][handle & PAGE_MASK] = (byte)value;
+  }
+
+  /**
+   * Returns the position of the node in the open list, or -1 if the node
+   * is not on the open list.
+   *
+   * @param handle the handle
+   * @return the position or -1
+   */
+  public int getHeapIndex(int handle) {
+    return heapIndex[handle >>> PAGE_BITS][handle & PAGE_MASK];
+  }
+
+  public void setHeapIndex(int handle, int value) {
+    heapIndex[handle >>> PAGE_BITS][handle & PAGE_MASK] = value;
+  }
+
+  /**
+   * Returns the number of nodes.
+   *
+   * @return the number of nodes
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes all nodes, allocated pages are retained.
+   */
+  public void clear() {
+    size = 0;
+    Arrays.fill(table, 0);
+  }
+
+  private void allocatePage(int page) {
+    packed[page] = new long[PAGE_SIZE];
+    g[page] = new double[PAGE_SIZE];
+    h[page] = new double[PAGE_SIZE];
+    parent[page] = new int[PAGE_SIZE];
+    op[page] = new byte[PAGE_SIZE];
+    heapIndex[page] = new int[PAGE_SIZE];
+  }
+
+  private void growDirectory() {
+    int n = packed.length << 1;
+    packed = Arrays.copyOf(packed, n);
+    g = Arrays.copyOf(g, n);
+    h = Arrays.copyOf(h, n);
+    parent = Arrays.copyOf(parent, n);
+    op = Arrays.copyOf(op, n);
+    heapIndex = Arrays.copyOf(heapIndex, n);
+  }
+
+  private void allocateTable(int capacity) {
+    table = new int[capacity];
+    mask = capacity - 1;
+    resizeAt = capacity >>> 1;
+  }
+
+  /*
+   * The table is kept at most half full, 8 bytes per node.
+   */
+  private void rehash(int capacity) {
+    if (capacity <= 0)
+      throw new IllegalStateException("Node store is full");
+    allocateTable(capacity);
+    for (int handle = 0; handle < size; handle++) {
+      int slot = LongNodeMap.hash(getPacked(handle)) & mask;
+      while (table[slot] != 0)
+        slot = (slot + 1) & mask;
+      table[slot] = handle + 1;
+    }
+  }
+
+}
@@ -0,0 +1,260 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.collections;
+
+import java.util.Arrays;
+
+import org.cs4j.core.collections.BucketHeap.BucketHeapElement;
+import org.cs4j.core.jfr.SearchEvents;
+
+/**
+ * A two-level bucket heap for real valued ranks.  The first level buckets
+ * elements on their quantized primary rank (f) and the second level bins
+ * them on their quantized secondary rank (g), preferring high g.  Ranks
+ * that fall within epsilon of each other are treated as equal, so an
+ * algorithm that is optimal with exact ordering returns solutions within
+ * epsilon of optimal.
+ *
+ * Both levels grow on demand.  The heap is fastest when primary ranks are
+ * monotone, as they are for A* with a consistent heuristic, since the
+ * minimum bucket pointer then only moves forward.
+ *
+ * @author Matthew Hatem
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public final class QuantizedBucketHeap<E extends BucketHeapElement> implements SearchQueue<E> {
+
+  public static final double DEFAULT_F_EPSILON = 0.001;
+  public static final double DEFAULT_G_EPSILON = 1.0;
+
+  private final double fScale, gScale;
+  private final int key;
+  private Bucket[] buckets;
+  // quantized rank of buckets[0]
+  private int base;
+  // quantized rank of the lowest bucket that may be non-empty
+  private int min;
+  private int fill;
+
+  /**
+   * The constructor.
+   *
+   * @param key the key for this heap
+   */
+  public QuantizedBucketHeap(int key) {
+    this(DEFAULT_F_EPSILON, DEFAULT_G_EPSILON, key);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param fEpsilon the width of a primary rank bucket
+   * @param gEpsilon the width of a secondary rank bin
+   * @param key the key for this heap
+   */
+  public QuantizedBucketHeap(double fEpsilon, double gEpsilon, int key) {
+    if (fEpsilon <= 0 || gEpsilon <= 0)
+      throw new IllegalArgumentException("Epsilon must be positive");
+    this.fScale = 1.0 / fEpsilon;
+    this.gScale = 1.0 / gEpsilon;
+    this.key = key;
+    clear();
+  }
+
+  @Override
+  public int getKey() {
+    return key;
+  }
+
+  @Override
+  public void add(E e) {
+    int p0 = quantize(e.getRank(0), fScale);
+    int p1 = quantize(e.getRank(1), gScale);
+    if (fill == 0) {
+      base = p0;
+      min = p0;
+    }
+    else if (p0 < base) {
+      rebase(p0);
+    }
+    if (p0 < min) {
+      min = p0;
+    }
+    int i = p0 - base;
+    if (i >= buckets.length) {
+      int capacity = Math.max(i + 1, buckets.length << 1);
+      SearchEvents.heapResized(QuantizedBucketHeap.class, buckets.length, 
+          capacity);
+      buckets = Arrays.copyOf(buckets, capacity);
+    }
+    Bucket<E> bucket = buckets[i];
+    if (bucket == null) {
+      bucket = new Bucket<>(key);
+      buckets[i] = bucket;
+    }
+    bucket.push(e, p1);
+    e.setIndex(key, p0);
+    e.setSecondaryIndex(key, p1);
+    fill++;
+  }
+
+  @Override
+  public E poll() {
+    if (fill == 0)
+      return null;
+    Bucket<E> bucket = minBucket();
+    E e = bucket.pop();
+    e.setIndex(key, -1);
+    e.setSecondaryIndex(key, -1);
+    fill--;
+    return e;
+  }
+
+  @Override
+  public E peek() {
+    if (fill == 0)
+      return null;
+    return minBucket().peek();
+  }
+
+  @Override
+  public void update(E e) {
+    remove(e);
+    add(e);
+  }
+
+  @Override
+  public E remove(E e) {
+    int p0 = e.getIndex(key);
+    int i = p0 - base;
+    if (p0 < 0 || i < 0 || i >= buckets.length || buckets[i] == null)
+      throw new IllegalArgumentException();
+    buckets[i].remove(e, e.getSecondaryIndex(key));
+    e.setIndex(key, -1);
+    e.setSecondaryIndex(key, -1);
+    fill--;
+    return e;
+  }
+
+  @Override
+  public void clear() {
+    buckets = new Bucket[64];
+    base = 0;
+    min = 0;
+    fill = 0;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return fill == 0;
+  }
+
+  @Override
+  public int size() {
+    return fill;
+  }
+
+  private Bucket<E> minBucket() {
+    for (;; min++) {
+      Bucket<E> bucket = buckets[min - base];
+      if (bucket != null && !bucket.isEmpty())
+        return bucket;
+    }
+  }
+
+  /*
+   * Shifts the buckets up so that the specified rank maps to bucket 0.
+   * Only the buckets up to the highest non-empty one are kept, so the
+   * array does not grow each time the heap empties and refills lower.
+   */
+  private void rebase(int p0) {
+    int shift = base - p0;
+    int top = buckets.length - 1;
+    while (top >= 0 && (buckets[top] == null || buckets[top].isEmpty()))
+      top--;
+    int capacity = Math.max(buckets.length, top + 1 + shift);
+    Bucket[] shifted = new Bucket[capacity];
+    if (capacity != buckets.length)
+      SearchEvents.heapResized(QuantizedBucketHeap.class, buckets.length, 
+          capacity);
+    System.arraycopy(buckets, 0, shifted, shift, top + 1);
+    buckets = shifted;
+    base = p0;
+  }
+
+  private static int quantize(double rank, double scale) {
+    double q = Math.rint(rank * scale);
+    if (q < 0 || q > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Rank out of range: "+rank);
+    return (int)q;
+  }
+
+  private static final class Bucket<E extends BucketHeapElement> {
+    private int fill, max;
+    private BucketBin[] bins = new BucketBin[16];
+    private final int key;
+
+    private Bucket(int key) {
+      this.key = key;
+    }
+
+    private void push(E e, int p) {
+      if (p >= bins.length) {
+        bins = Arrays.copyOf(bins, Math.max(p + 1, bins.length << 1));
+      }
+      if (p > max) {
+        max = p;
+      }
+      BucketBin<E> bin = bins[p];
+      if (bin == null) {
+        bin = new BucketBin<E>(key);
+        bins[p] = bin;
+      }
+      bin.add(e);
+      fill++;
+    }
+
+    private E pop() {
+      fill--;
+      return maxBin().pop();
+    }
+
+    private E peek() {
+      return maxBin().peek();
+    }
+
+    private BucketBin<E> maxBin() {
+      for (;; max--) {
+        BucketBin<E> bin = bins[max];
+        if (bin != null && !bin.isEmpty())
+          return bin;
+      }
+    }
+
+    private void remove(E e, int p) {
+      if (p < 0 || p >= bins.length || bins[p] == null)
+        throw new IllegalArgumentException();
+      bins[p].remove(e);
+      fill--;
+    }
+
+    private boolean isEmpty() {
+      return fill == 0;
+    }
+  }
+
+}
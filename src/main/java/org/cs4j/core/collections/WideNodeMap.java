@@ -0,0 +1,276 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.collections;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from multi-word keys (wide packed states) to
+ * nodes.  It mirrors LongNodeMap: linear probing, backward shift deletion
+ * and a power of two capacity.  Keys are stored by reference, so a key
+ * must not be modified while it is in the map, and the hash of each key
+ * is cached to avoid comparing the words of most colliding keys.
+ *
+ * Null values are not permitted, an empty slot is a slot with a null value.
+ *
+ * @author Matthew Hatem
+ */
+public final class WideNodeMap<V> {
+
+  private static final int DEFAULT_CAPACITY = 1024;
+  private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+  private long[][] keys;
+  private int[] hashes;
+  private Object[] values;
+  private int mask;
+  private int size;
+  private int resizeAt;
+  private final float loadFactor;
+
+  /**
+   * The constructor.
+   */
+  public WideNodeMap() {
+    this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param capacity the initial capacity
+   * @param loadFactor the load factor at which the table is doubled
+   */
+  public WideNodeMap(int capacity, float loadFactor) {
+    if (loadFactor <= 0 || loadFactor >= 1)
+      throw new IllegalArgumentException("Load factor must be in (0, 1)");
+    this.loadFactor = loadFactor;
+    allocate(roundCapacity((int)Math.ceil(capacity / loadFactor)));
+  }
+
+  /**
+   * Returns the value for the specified key or null if there is none.
+   *
+   * @param key the key
+   * @return the value or null
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long[] key) {
+    int h = hash(key);
+    int i = h & mask;
+    Object v;
+    while ((v = values[i]) != null) {
+      if (hashes[i] == h && Arrays.equals(keys[i], key))
+        return (V)v;
+      i = (i + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * Associates the specified value with the specified key.
+   *
+   * @param key the key, which must not be modified afterwards
+   * @param value the value, must not be null
+   * @return the previous value or null
+   */
+  @SuppressWarnings("unchecked")
+  public V put(long[] key, V value) {
+    if (value == null)
+      throw new IllegalArgumentException("Null values are not permitted");
+    int h = hash(key);
+    int i = h & mask;
+    Object v;
+    while ((v = values[i]) != null) {
+      if (hashes[i] == h && Arrays.equals(keys[i], key)) {
+        values[i] = value;
+        return (V)v;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[i] = key;
+    hashes[i] = h;
+    values[i] = value;
+    if (++size > resizeAt)
+      resize(keys.length << 1);
+    return null;
+  }
+
+  /**
+   * Removes the mapping for the specified key.
+   *
+   * @param key the key
+   * @return the removed value or null
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(long[] key) {
+    int h = hash(key);
+    int i = h & mask;
+    Object v;
+    while ((v = values[i]) != null) {
+      if (hashes[i] == h && Arrays.equals(keys[i], key)) {
+        shiftBack(i);
+        size--;
+        return (V)v;
+      }
+      i = (i + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the number of mappings.
+   *
+   * @return the number of mappings
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns true if there are no mappings.
+   *
+   * @return true if empty, false otherwise
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all mappings, the capacity is retained.
+   */
+  public void clear() {
+    Arrays.fill(keys, null);
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  /**
+   * Returns the current capacity of the table.
+   *
+   * @return the capacity
+   */
+  public int capacity() {
+    return keys.length;
+  }
+
+  /**
+   * Returns the mean number of probes needed to find a key in the table.
+   * This scans the whole table.
+   *
+   * @return the mean probe length, or 0 if empty
+   */
+  public double meanProbeLength() {
+    long total = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null)
+        total += probeLength(i);
+    }
+    return (size == 0) ? 0 : (double)total / size;
+  }
+
+  /**
+   * Returns the largest number of probes needed to find a key in the
+   * table.  This scans the whole table.
+   *
+   * @return the maximum probe length
+   */
+  public int maxProbeLength() {
+    int max = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null)
+        max = Math.max(max, probeLength(i));
+    }
+    return max;
+  }
+
+  private int probeLength(int i) {
+    return ((i - hashes[i]) & mask) + 1;
+  }
+
+  /**
+   * Mixes all words of the specified key.
+   *
+   * @param key the key
+   * @return the hash
+   */
+  public static int hash(long[] key) {
+    long h = key.length;
+    for (int i = 0; i < key.length; i++)
+      h = h * 0x9e3779b97f4a7c15L + key[i];
+    return LongNodeMap.hash(h);
+  }
+
+  /*
+   * Closes the gap at slot i by moving back any entry of the following
+   * cluster that would otherwise become unreachable.
+   */
+  private void shiftBack(int i) {
+    int j = i;
+    while (true) {
+      j = (j + 1) & mask;
+      if (values[j] == null)
+        break;
+      int home = hashes[j] & mask;
+      // move j into the gap unless its home lies cyclically in (i, j]
+      if ((j > i) ? (home <= i || home > j) : (home <= i && home > j)) {
+        keys[i] = keys[j];
+        hashes[i] = hashes[j];
+        values[i] = values[j];
+        i = j;
+      }
+    }
+    keys[i] = null;
+    values[i] = null;
+  }
+
+  private void resize(int capacity) {
+    long[][] oldKeys = keys;
+    int[] oldHashes = hashes;
+    Object[] oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      Object v = oldValues[i];
+      if (v == null)
+        continue;
+      int j = oldHashes[i] & mask;
+      while (values[j] != null)
+        j = (j + 1) & mask;
+      keys[j] = oldKeys[i];
+      hashes[j] = oldHashes[i];
+      values[j] = v;
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity][];
+    hashes = new int[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+    resizeAt = Math.min(capacity - 1, (int)(capacity * loadFactor));
+  }
+
+  private static int roundCapacity(int capacity) {
+    if (capacity > (1 << 30))
+      throw new IllegalArgumentException("Capacity too large: "+capacity);
+    int c = 2;
+    while (c < capacity)
+      c <<= 1;
+    return c;
+  }
+
+}
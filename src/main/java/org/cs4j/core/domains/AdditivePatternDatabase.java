@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.domains;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A disjoint additive pattern database heuristic for the sliding-tiles
+ * domain.  The heuristic is the sum of the pattern databases for a
+ * partition of the tiles.  It is admissible for unit costs only.
+ *
+ * @author Matthew Hatem
+ */
+public final class AdditivePatternDatabase {
+
+  /**
+   * The 6-6-3 partition of the 4x4 puzzle.
+   */
+  public static final int[][] PARTITION_663 = {
+    {1, 4, 5, 8, 9, 12},
+    {2, 3, 6, 7, 10, 11},
+    {13, 14, 15}
+  };
+
+  private final int width, height;
+  private final PatternDatabase[] pdbs;
+  private final int[] patternOf;
+
+  private AdditivePatternDatabase(int width, int height,
+      PatternDatabase[] pdbs, int[] patternOf) {
+    this.width = width;
+    this.height = height;
+    this.pdbs = pdbs;
+    this.patternOf = patternOf;
+  }
+
+  /**
+   * Maps the tables for the specified partition from the specified
+   * directory, building any table that does not exist yet.
+   *
+   * @param dir the directory holding the tables
+   * @param width the width of the puzzle
+   * @param height the height of the puzzle
+   * @param partition the disjoint patterns
+   * @return the additive pattern database
+   * @throws IOException if a table cannot be read or written
+   */
+  public static AdditivePatternDatabase open(File dir, int width, int height,
+      int[][] partition) throws IOException {
+    int ntiles = width * height;
+    int[] patternOf = new int[ntiles];
+    Arrays.fill(patternOf, -1);
+    for (int p = 0; p < partition.length; p++) {
+      for (int t : partition[p]) {
+        if (t <= 0 || t >= ntiles || patternOf[t] != -1)
+          throw new IllegalArgumentException("Patterns are not disjoint");
+        patternOf[t] = p;
+      }
+    }
+    if (!dir.isDirectory() && !dir.mkdirs())
+      throw new IOException("Unable to create directory: "+dir);
+    PatternDatabase[] pdbs = new PatternDatabase[partition.length];
+    for (int p = 0; p < partition.length; p++) {
+      File file = new File(dir, fileName(width, height, partition[p]));
+      pdbs[p] = PatternDatabase.open(file, width, height, partition[p]);
+    }
+    return new AdditivePatternDatabase(width, height, pdbs, patternOf);
+  }
+
+  /**
+   * Returns the width of the puzzle.
+   *
+   * @return the width
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the height of the puzzle.
+   *
+   * @return the height
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Returns the heuristic value for the specified tile positions.
+   *
+   * @param pos the position of each tile, indexed by tile
+   * @return the heuristic value
+   */
+  public int lookup(int[] pos) {
+    int h = 0;
+    for (int p = 0; p < pdbs.length; p++)
+      h += pdbs[p].lookup(pos);
+    return h;
+  }
+
+  /**
+   * Returns the value of the pattern containing the specified tile, or 0
+   * if the tile is not part of any pattern.  When a single tile moves
+   * only this term of the sum changes.
+   *
+   * @param tile the tile
+   * @param pos the position of each tile, indexed by tile
+   * @return the value of the tile's pattern
+   */
+  public int lookup(int tile, int[] pos) {
+    int p = patternOf[tile];
+    return (p < 0) ? 0 : pdbs[p].lookup(pos);
+  }
+
+  private static String fileName(int width, int height, int[] pattern) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("pdb-").append(width).append('x').append(height);
+    for (int t : pattern)
+      sb.append('-').append(t);
+    return sb.append(".bin").toString();
+  }
+
+  /**
+   * Builds the 6-6-3 tables for the 4x4 puzzle in the specified directory.
+   *
+   * @param args the directory
+   * @throws IOException if a table cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    File dir = new File(args.length > 0 ? args[0] : "pdb");
+    open(dir, 4, 4, PARTITION_663);
+  }
+
+}
@@ -20,31 +20,46 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.List;
 
-import org.cs4j.core.SearchDomain;
+import org.cs4j.core.BidirectionalSearchDomain;
+import org.cs4j.core.CachingSearchDomain;
+import org.cs4j.core.InPlaceSearchDomain;
+import org.cs4j.core.PackedSearchDomain;
+import org.cs4j.core.PartialExpansionSearchDomain;
+import org.cs4j.core.collections.HeuristicCache;
 
 /**
  * The 4x4 sliding-tiles domain class.
  * 
  * @author Matthew Hatem
  */
-public final class FifteenPuzzle implements SearchDomain {
+public final class FifteenPuzzle implements InPlaceSearchDomain, 
+	PackedSearchDomain, CachingSearchDomain, BidirectionalSearchDomain, 
+	PartialExpansionSearchDomain {
   
   private final int width = 4;
   private final int height = 4;
   private final int Ntiles = width * height;
+  private static final long GOAL = 0x0123456789ABCDEFL;
   private int init[] = new int[Ntiles];
   
   private double md[][] = new double[Ntiles][Ntiles];
   private double mdincr[][][] = new double[Ntiles][Ntiles][Ntiles];
+  // the change in f of moving a tile, indexed like mdincr
+  private double dfincr[][][] = new double[Ntiles][Ntiles][Ntiles];
   private int md_unit[][] = new int[Ntiles][Ntiles];
   private int mdincr_unit[][][] = new int[Ntiles][Ntiles][Ntiles];    
+  // the Manhattan distance to the initial position of each tile
+  private double rmd[][] = new double[Ntiles][Ntiles];
   
   private int optab_n[] = new int[Ntiles]; 
   private int optab_ops[][] = new int[Ntiles][4]; 
   private Operator oplookup[] = new Operator[Ntiles];
 
   private COST_FUNCTION costFunction;
+  private AdditivePatternDatabase pdb;
+  private HeuristicCache cache;
   
   public enum COST_FUNCTION {UNIT, SQRT, INVR, HEAVY};
     
@@ -59,6 +74,26 @@ public final class FifteenPuzzle implements SearchDomain {
   }
   
   public FifteenPuzzle(InputStream stream, COST_FUNCTION cost) {
+    this(stream, cost, null);
+  }
+  
+  /**
+   * The constructor reads a tiles problem instance from the specified
+   * input stream and uses the specified additive pattern database as the
+   * heuristic instead of the Manhattan distance.
+   * 
+   * @param stream the input stream
+   * @param pdb the pattern database, which requires unit costs
+   */
+  public FifteenPuzzle(InputStream stream, AdditivePatternDatabase pdb) {
+    this(stream, COST_FUNCTION.UNIT, pdb);
+  }
+  
+  private FifteenPuzzle(InputStream stream, COST_FUNCTION cost, 
+  		AdditivePatternDatabase pdb) {
+    if (pdb != null && (pdb.getWidth() != width || pdb.getHeight() != height))
+      throw new IllegalArgumentException("Pattern database is not 4x4");
+    this.pdb = pdb;
     try {
       BufferedReader reader = new BufferedReader(
           new InputStreamReader(stream));
@@ -94,6 +129,7 @@ public final class FifteenPuzzle implements SearchDomain {
     this.costFunction = cost;
     initmd();
     initmd_unit();
+    initrmd();
     initoptab();
   }
   
@@ -115,6 +151,10 @@ public final class FifteenPuzzle implements SearchDomain {
     s.one = one;    
     s.h = mdist(s.blank, s.tiles, costFunction);    
     s.d = mdist(s.blank, s.tiles, COST_FUNCTION.UNIT);    
+    if (pdb != null) {
+      s.pos = positions(s.tiles, s.blank);
+      s.h = pdb.lookup(s.pos);
+    }
 
     return s;
   }  
@@ -124,6 +164,61 @@ public final class FifteenPuzzle implements SearchDomain {
     return ((TileState)state).d == 0;
   }
   
+  @Override
+  public double selectOperators(State s, Operator pop, double lower, 
+      double upper, List<Operator> selected) {
+    TileState ts = (TileState)s;
+    double next = Double.MAX_VALUE;
+    for (int i = 0; i < optab_n[ts.blank]; i++) {
+      Operator op = oplookup[optab_ops[ts.blank][i]];
+      if (op == pop)
+        continue;
+      double df = deltaF(ts, optab_ops[ts.blank][i]);
+      if (df > upper)
+        next = Math.min(next, df);
+      else if (df > lower)
+        selected.add(op);
+    }
+    return next;
+  }
+  
+  /*
+   * Returns the change in f of moving the blank to the specified position.
+   */
+  private double deltaF(TileState ts, int newb) {
+    int tile = ts.tiles[newb];
+    if (pdb == null)
+      return dfincr[tile][newb][ts.blank];
+    int pos[] = ts.pos;
+    int h = pdb.lookup(tile, pos);
+    pos[tile] = ts.blank;
+    pos[0] = newb;
+    int dh = pdb.lookup(tile, pos) - h;
+    pos[tile] = newb;
+    pos[0] = ts.blank;
+    return cost(tile) + dh;
+  }
+  
+  @Override
+  public State goalState() {
+    return unpack(GOAL);
+  }
+  
+  /*
+   * The Manhattan distance to the initial state, which is weighted by the
+   * cost function even with a pattern database.
+   */
+  @Override
+  public double getReverseH(State state) {
+    TileState ts = (TileState)state;
+    double sum = 0;
+    for (int i = 0; i < Ntiles; i++) {
+      if (i != ts.blank)
+        sum += rmd[ts.tiles[i]][i];
+    }
+    return sum;
+  }
+  
   @Override
   public int getNumOperators(State state) {
     return optab_n[((TileState)state).blank];
@@ -144,21 +239,124 @@ public final class FifteenPuzzle implements SearchDomain {
     copy.one = ts.one;
     copy.h = ts.h;
     copy.d = ts.d;
+    if (ts.pos != null)
+      copy.pos = ts.pos.clone();
     return copy;
   }  
   
   @Override
   public State applyOperator(State s, Operator op) {
   	TileState ts = (TileState)copy(s);
-  	FifteenPuzzleOperator fop = (FifteenPuzzleOperator)op;
-    int newb = fop.value; 
-    int tile = ts.tiles[fop.value];
+    move(ts, ((FifteenPuzzleOperator)op).value);
+    return ts;
+  }
+  
+  @Override
+  public int apply(State s, Operator op) {
+  	TileState ts = (TileState)s;
+  	int blank = ts.blank;
+    move(ts, ((FifteenPuzzleOperator)op).value);
+    return blank;
+  }
+  
+  @Override
+  public void undo(State s, int blank) {
+  	move((TileState)s, blank);
+  }
+  
+  /*
+   * Moves the blank to the specified position.
+   */
+  private void move(TileState ts, int newb) {
+    int tile = ts.tiles[newb];
     ts.tiles[ts.blank] = tile;
     if (tile == 1) ts.one = ts.blank;    
-    ts.h += mdincr[tile][newb][ts.blank];
+    if (pdb != null) {
+      int h = pdb.lookup(tile, ts.pos);
+      ts.pos[tile] = ts.blank;
+      ts.pos[0] = newb;
+      ts.h += pdb.lookup(tile, ts.pos) - h;
+    }
+    else {
+      ts.h += mdincr[tile][newb][ts.blank];
+    }
     ts.d += mdincr_unit[tile][newb][ts.blank];
     ts.blank = newb;     
-    return ts;
+  }
+  
+  @Override
+  public boolean isGoal(long word) {
+    return word == GOAL;
+  }
+  
+  @Override
+  public int expand(long word, Successors successors) {
+    successors.clear();
+    int blank = blank(word);
+    int pos[] = (pdb != null) ? positions(word) : null;
+    for (int i = 0; i < optab_n[blank]; i++) {
+      int newb = optab_ops[blank][i];
+      int tile = (int)(word >>> shift(newb)) & 0xF;
+      long child = (word & ~(0xFL << shift(newb))) | 
+          ((long)tile << shift(blank));
+      double dh;
+      if (pdb != null) {
+        int h = pdb.lookup(tile, pos);
+        pos[tile] = blank;
+        pos[0] = newb;
+        dh = pdb.lookup(tile, pos) - h;
+        pos[tile] = newb;
+        pos[0] = blank;
+      }
+      else {
+        dh = mdincr[tile][newb][blank];
+      }
+      successors.add(child, cost(tile), dh, mdincr_unit[tile][newb][blank],
+          oplookup[newb], oplookup[blank]);
+    }
+    return successors.size();
+  }
+  
+  /*
+   * Returns the position of the blank, the only zero nibble of the word.
+   * Subtracting one from every nibble borrows through the high bit of the
+   * lowest zero nibble first.
+   */
+  private int blank(long word) {
+    long zero = (word - 0x1111111111111111L) & ~word & 0x8888888888888888L;
+    return Ntiles - 1 - (Long.numberOfTrailingZeros(zero) >>> 2);
+  }
+  
+  /*
+   * Returns the shift of the nibble for the specified position.
+   */
+  private int shift(int position) {
+    return (Ntiles - 1 - position) << 2;
+  }
+  
+  /*
+   * Returns the position of each tile in the packed word, indexed by tile.
+   */
+  private int[] positions(long word) {
+    int pos[] = new int[Ntiles];
+    for (int i = Ntiles - 1; i >= 0; i--) {
+      pos[(int)word & 0xF] = i;
+      word >>>= 4;
+    }
+    return pos;
+  }
+  
+  /*
+   * Returns the position of each tile, indexed by tile.
+   */
+  private int[] positions(int tiles[], int blank) {
+    int pos[] = new int[Ntiles];
+    for (int i = 0; i < Ntiles; i++) {
+      if (i != blank)
+        pos[tiles[i]] = i;
+    }
+    pos[0] = blank;
+    return pos;
   }
   
   @Override
@@ -175,6 +373,7 @@ public final class FifteenPuzzle implements SearchDomain {
   @Override
   public State unpack(long word) {
   	TileState ts = new TileState();
+  	long packed = word;
     ts.blank = -1;
     for (int i = Ntiles - 1; i >= 0; i--) {
       int t = (int) word & 0xF;
@@ -182,15 +381,42 @@ public final class FifteenPuzzle implements SearchDomain {
       ts.tiles[i] = t;
       if (t == 0)
         ts.blank = i;
-      else {
+      if (t == 1)
+        ts.one = i;
+    }
+    if (pdb != null)
+      ts.pos = positions(ts.tiles, ts.blank);
+    if (cache != null) {
+      double hd[] = new double[2];
+      if (cache.get(packed, hd)) {
+        ts.h = hd[0];
+        ts.d = hd[1];
+        return ts;
+      }
+    }
+    for (int i = 0; i < Ntiles; i++) {
+      int t = ts.tiles[i];
+      if (t != 0) {
       	ts.h += md[t][i];
       	ts.d += md_unit[t][i];
       }
-      if (t == 1)
-        ts.one = i;
     }
+    if (pdb != null)
+      ts.h = pdb.lookup(ts.pos);
+    if (cache != null)
+      cache.put(packed, ts.h, ts.d);
     return ts;
   }  
+  
+  @Override
+  public void setHeuristicCache(HeuristicCache cache) {
+    this.cache = cache;
+  }
+  
+  @Override
+  public HeuristicCache getHeuristicCache() {
+    return cache;
+  }
  
   /*
    * Computes the Manhattan distance for the specified blank and tile
@@ -255,6 +481,8 @@ public final class FifteenPuzzle implements SearchDomain {
           mdincr[t][d][d + 1] = md[t][d + 1] - newmd;
         if (d < Ntiles - width)
           mdincr[t][d][d + width] = md[t][d + width] - newmd;
+        for (int s = 0; s < Ntiles; s++)
+          dfincr[t][d][s] = cost(t) + mdincr[t][d][s];
       }
     }
   }
@@ -287,6 +515,23 @@ public final class FifteenPuzzle implements SearchDomain {
     }
   }
     
+  /*
+   * Initializes the Manhattan distance table for the initial state.
+   */
+  private void initrmd() {
+    for (int i = 0; i < Ntiles; i++) {
+      int t = init[i];
+      if (t == 0)
+        continue;
+      double cost = cost(t);
+      int irow = i / width, icol = i % width;
+      for (int l = 0; l < Ntiles; l++) {
+        int row = l / width, col = l % width;
+        rmd[t][l] = (Math.abs(col - icol) + Math.abs(row - irow)) * cost;
+      }
+    }
+  }
+    
   /*
    * Initializes the operators.
    */
@@ -311,6 +556,7 @@ public final class FifteenPuzzle implements SearchDomain {
   private static final class TileState implements State {  
     
   	private int tiles[] = new int[16];
+  	private int pos[];
     private int blank, one;
     private double h, d;
     
@@ -20,10 +20,30 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 
+import org.cs4j.core.BidirectionalSearchDomain;
+import org.cs4j.core.CachingSearchDomain;
+import org.cs4j.core.InPlaceSearchDomain;
+import org.cs4j.core.PackedSearchDomain;
 import org.cs4j.core.SearchDomain;
+import org.cs4j.core.WideSearchDomain;
+import org.cs4j.core.collections.HeuristicCache;
 
-public class Pancakes implements SearchDomain {
+/**
+ * The pancake domain class.  Stacks of up to 16 cakes are packed a nibble
+ * per cake, stacks of up to 20 cakes are packed by their permutation rank
+ * and larger stacks, up to 256 cakes, are packed a byte per cake into
+ * multiple words.
+ * 
+ * @author Matthew Hatem
+ */
+public class Pancakes implements InPlaceSearchDomain, PackedSearchDomain, 
+	CachingSearchDomain, WideSearchDomain, BidirectionalSearchDomain {
+  
+  private static final int MAX_NIBBLE_CAKES = 16;
+  private static final int MAX_RANKED_CAKES = 20;
+  private static final int MAX_CAKES = 256;
   
   private COST_FUNCTION costFunction;
   
@@ -31,7 +51,11 @@ public class Pancakes implements SearchDomain {
   
   private int numCakes = 0;
   private int init[];
+  // the position of each cake in the initial stack
+  private int initPos[];
   private Operator[] oplookup;
+  private long goal;
+  private HeuristicCache cache;
   
   public Pancakes(InputStream stream, COST_FUNCTION costFunction) {
     this.costFunction = costFunction;
@@ -49,9 +73,20 @@ public class Pancakes implements SearchDomain {
     } catch (IOException e) {
       e.printStackTrace();
     }
+    if (numCakes > MAX_CAKES)
+      throw new IllegalArgumentException("More than "+MAX_CAKES+" cakes");
+    initPos = new int[numCakes];
+    for (int i=0; i<numCakes; i++) {
+      initPos[init[i]] = i;
+    }
+    oplookup = new Operator[numCakes];
     for (int i=0; i<numCakes; i++) {
     	oplookup[i] = new PancakeOperator(i+1);
+    	goal = (goal << 4) | i;
     }
+    // the sorted stack has rank 0
+    if (numCakes > MAX_NIBBLE_CAKES)
+      goal = 0;
   }
   
   /*
@@ -112,8 +147,7 @@ public class Pancakes implements SearchDomain {
     PancakeState s = new PancakeState(numCakes);
     for (int i = 0; i < numCakes; i++)
       s.cakes[i] = init[i];
-    s.h = ngaps(s.cakes, costFunction);
-    s.d = ngaps(s.cakes, COST_FUNCTION.UNIT);
+    estimate(s);
     return s;
   }
   
@@ -122,6 +156,33 @@ public class Pancakes implements SearchDomain {
     return ((PancakeState)state).d == 0;
   }
   
+  @Override
+  public PancakeState goalState() {
+    PancakeState s = new PancakeState(numCakes);
+    for (int i = 0; i < numCakes; i++)
+      s.cakes[i] = i;
+    estimate(s);
+    return s;
+  }
+  
+  /*
+   * Counts the gaps with respect to the initial stack.  Seen from the goal
+   * a flip costs as much as the cake it brings down, which need not be one
+   * of the cakes of the gap it closes, so every gap weighs one.
+   */
+  @Override
+  public double getReverseH(State state) {
+    int cakes[] = ((PancakeState)state).cakes;
+    int gaps = 0;
+    for (int i = 0; i < numCakes-1; i++) {
+      if (Math.abs(initPos[cakes[i]] - initPos[cakes[i+1]]) != 1)
+        gaps++;
+    }
+    if (initPos[cakes[numCakes-1]] != numCakes-1)
+      gaps++;
+    return gaps;
+  }
+  
   private int ngaps(int cakes[], COST_FUNCTION costFunction) {
     int gaps = 0;
     for (int i = 0; i < numCakes; i++) {
@@ -161,11 +222,202 @@ public class Pancakes implements SearchDomain {
   @Override
   public State applyOperator(State state, Operator op) {  
   	PancakeState ps = (PancakeState)copy(state);
+  	flip(ps, ((PancakeOperator)op).value);
+    return ps;
+  }
+  
+  @Override
+  public int apply(State state, Operator op) {
   	int o = ((PancakeOperator)op).value;
+  	flip((PancakeState)state, o);
+  	return o;
+  }
+  
+  @Override
+  public void undo(State state, int o) {
+  	// flips are their own inverse
+  	flip((PancakeState)state, o);
+  }
+  
+  /*
+   * Flips the top o+1 cakes.  Only the gap below the flipped cakes changes
+   * so the heuristic and distance estimates are updated in constant time.
+   */
+  private void flip(PancakeState ps, int o) {
+    int top = ps.cakes[0];
+    int a = ps.cakes[o];
+    int b = (o < numCakes-1) ? ps.cakes[o+1] : numCakes;
+    ps.h += gap(top, b, costFunction) - gap(a, b, costFunction);
+    ps.d += gap(top, b, COST_FUNCTION.UNIT) - gap(a, b, COST_FUNCTION.UNIT);
     ps.flip(o);
-    ps.h = ngaps(ps.cakes, costFunction);
-    ps.d = ngaps(ps.cakes, COST_FUNCTION.UNIT);      
-    return ps;
+  }
+  
+  /*
+   * Sets the heuristic and distance estimates of the state, looking them
+   * up in the heuristic cache if there is one.
+   */
+  private void estimate(PancakeState ps) {
+    if (cache == null || numCakes > MAX_RANKED_CAKES) {
+      ps.h = ngaps(ps.cakes, costFunction);
+      ps.d = ngaps(ps.cakes, COST_FUNCTION.UNIT);
+      return;
+    }
+    long word = pack(ps);
+    double hd[] = new double[2];
+    if (cache.get(word, hd)) {
+      ps.h = hd[0];
+      ps.d = hd[1];
+    }
+    else {
+      ps.h = ngaps(ps.cakes, costFunction);
+      ps.d = ngaps(ps.cakes, COST_FUNCTION.UNIT);
+      cache.put(word, ps.h, ps.d);
+    }
+  }
+  
+  @Override
+  public void setHeuristicCache(HeuristicCache cache) {
+    this.cache = cache;
+  }
+  
+  @Override
+  public HeuristicCache getHeuristicCache() {
+    return cache;
+  }
+  
+  @Override
+  public boolean isGoal(long word) {
+    checkPackedWords();
+    return word == goal;
+  }
+  
+  @Override
+  public int expand(long word, Successors successors) {
+    if (numCakes > MAX_NIBBLE_CAKES)
+      return expandRanked(word, successors);
+    successors.clear();
+    int top = cake(word, 0);
+    for (int i = 0; i < numCakes - 1; i++) {
+      int o = i+1;
+      int a = cake(word, o);
+      int b = (o < numCakes-1) ? cake(word, o+1) : numCakes;
+      // only the gap below the flipped cakes changes
+      double dh = gap(top, b, costFunction) - gap(a, b, costFunction);
+      double dd = gap(top, b, COST_FUNCTION.UNIT) - 
+          gap(a, b, COST_FUNCTION.UNIT);
+      successors.add(flip(word, o), cost(a), dh, dd, oplookup[i], 
+          oplookup[i]);
+    }
+    return successors.size();
+  }
+  
+  /*
+   * Generates the successors of a ranked state by flipping its cakes in
+   * place and ranking the result.
+   */
+  private int expandRanked(long rank, Successors successors) {
+    checkPackedWords();
+    successors.clear();
+    int cakes[] = unrank(rank);
+    int top = cakes[0];
+    for (int i = 0; i < numCakes - 1; i++) {
+      int o = i+1;
+      int a = cakes[o];
+      int b = (o < numCakes-1) ? cakes[o+1] : numCakes;
+      double dh = gap(top, b, costFunction) - gap(a, b, costFunction);
+      double dd = gap(top, b, COST_FUNCTION.UNIT) - 
+          gap(a, b, COST_FUNCTION.UNIT);
+      reverse(cakes, o);
+      long child = rank(cakes);
+      reverse(cakes, o);
+      successors.add(child, cost(a), dh, dd, oplookup[i], oplookup[i]);
+    }
+    return successors.size();
+  }
+  
+  private static void reverse(int cakes[], int op) {
+    for (int n = 0; n <= op / 2; n++) {
+      int tmp = cakes[n];
+      cakes[n] = cakes[op - n];
+      cakes[op - n] = tmp;
+    }
+  }
+  
+  /*
+   * Returns the lexicographic rank (Lehmer code) of the permutation.  Each
+   * digit counts the smaller cakes below a cake, it is computed with a bit
+   * mask of the cakes already seen above it.
+   */
+  private long rank(int cakes[]) {
+    checkPackedWords();
+    long rank = 0;
+    int seen = 0;
+    for (int i = 0; i < numCakes; i++) {
+      int v = cakes[i];
+      int digit = v - Integer.bitCount(seen & ((1 << v) - 1));
+      rank = rank * (numCakes - i) + digit;
+      seen |= 1 << v;
+    }
+    return rank;
+  }
+  
+  /*
+   * Returns the permutation with the specified lexicographic rank.
+   */
+  private int[] unrank(long rank) {
+    int cakes[] = new int[numCakes];
+    for (int i = numCakes - 1; i >= 0; i--) {
+      cakes[i] = (int)(rank % (numCakes - i));
+      rank /= (numCakes - i);
+    }
+    int unused = (1 << numCakes) - 1;
+    for (int i = 0; i < numCakes; i++) {
+      // select the digit-th smallest unused cake
+      int bits = unused;
+      for (int k = cakes[i]; k > 0; k--)
+        bits &= bits - 1;
+      int v = Integer.numberOfTrailingZeros(bits);
+      cakes[i] = v;
+      unused &= ~(1 << v);
+    }
+    return cakes;
+  }
+  
+  private void checkPackedWords() {
+    if (numCakes > MAX_RANKED_CAKES)
+      throw new UnsupportedOperationException(
+          "Stacks of more than "+MAX_RANKED_CAKES+" cakes need wide packing");
+  }
+  
+  /*
+   * Returns the cake at the specified position of the packed word.
+   */
+  private int cake(long word, int n) {
+    return (int)(word >>> ((numCakes - 1 - n) << 2)) & 0xF;
+  }
+  
+  /*
+   * Flips the top op+1 cakes of the packed word by reversing the order of
+   * their nibbles.
+   */
+  private long flip(long word, int op) {
+    int shift = (numCakes - 1 - op) << 2;
+    long r = Long.reverseBytes(word >>> shift);
+    r = ((r >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((r & 0x0F0F0F0F0F0F0F0FL) << 4);
+    r >>>= 64 - ((op + 1) << 2);
+    return (word & ((1L << shift) - 1)) | (r << shift);
+  }
+  
+  /*
+   * Returns the weight of the gap between cake a and cake b below it,
+   * where the plate is cake numCakes.
+   */
+  private int gap(int a, int b, COST_FUNCTION costFunction) {
+    if (Math.abs(a - b) == 1)
+      return 0;
+    if (costFunction == COST_FUNCTION.HEAVY)
+      return 1 + Math.min(a, b);
+    return 1;
   }
   
   private double cost(int op) {
@@ -190,6 +442,8 @@ public class Pancakes implements SearchDomain {
   @Override
   public long pack(State s) {
   	PancakeState ps = (PancakeState)s;
+  	if (numCakes > MAX_NIBBLE_CAKES)
+  	  return rank(ps.cakes);
     long word = 0;
     for (int i = 0; i < numCakes; i++) {
       word = (word << 4) | ps.cakes[i];
@@ -200,12 +454,48 @@ public class Pancakes implements SearchDomain {
   @Override
   public State unpack(long word) {
   	PancakeState state = new PancakeState(numCakes);
+  	if (numCakes > MAX_NIBBLE_CAKES) {
+  	  checkPackedWords();
+  	  state.cakes = unrank(word);
+  	  estimate(state);
+  	  return state;
+  	}
     for (int i = numCakes - 1; i >= 0; i--) {
       int t = (int) word & 0xF;
       word >>= 4;
       state.cakes[i] = t;
     }
-    state.h = ngaps(state.cakes, costFunction);
+    estimate(state);
+    return state;
+  }
+  
+  @Override
+  public int getPackedWords() {
+    return (numCakes <= MAX_RANKED_CAKES) ? 1 : (numCakes + 7) >>> 3;
+  }
+  
+  @Override
+  public void pack(State s, long[] words) {
+    if (numCakes <= MAX_RANKED_CAKES) {
+      words[0] = pack(s);
+      return;
+    }
+    PancakeState ps = (PancakeState)s;
+    Arrays.fill(words, 0);
+    for (int i = 0; i < numCakes; i++) {
+      words[i >>> 3] |= (long)ps.cakes[i] << ((i & 7) << 3);
+    }
+  }
+  
+  @Override
+  public State unpack(long[] words) {
+    if (numCakes <= MAX_RANKED_CAKES)
+      return unpack(words[0]);
+    PancakeState state = new PancakeState(numCakes);
+    for (int i = 0; i < numCakes; i++) {
+      state.cakes[i] = (int)(words[i >>> 3] >>> ((i & 7) << 3)) & 0xFF;
+    }
+    estimate(state);
     return state;
   }
   
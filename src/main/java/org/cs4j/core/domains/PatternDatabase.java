@@ -0,0 +1,305 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.domains;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A pattern database for the sliding-tiles domain.  The table stores, for
+ * every placement of the pattern tiles, the minimum number of moves of
+ * pattern tiles needed to bring them to their goal positions.  Moves of
+ * other tiles are free, which makes the tables of disjoint patterns
+ * additive.
+ *
+ * Entries are one byte each, indexed by the rank of the pattern tile
+ * positions as a partial permutation.  Tables are built by a retrograde
+ * breadth-first search from the goal and are memory mapped read-only, so
+ * processes on the same machine share one copy in the page cache.
+ *
+ * @author Matthew Hatem
+ */
+public final class PatternDatabase {
+
+  private final int width, height;
+  private final int[] pattern;
+  private final int[] mult;
+  private final ByteBuffer table;
+
+  private PatternDatabase(int width, int height, int[] pattern,
+      ByteBuffer table) {
+    this.width = width;
+    this.height = height;
+    this.pattern = pattern.clone();
+    this.mult = multipliers(width * height, pattern.length);
+    this.table = table;
+  }
+
+  /**
+   * Maps the table for the specified pattern from the specified file,
+   * building and writing the table first if the file does not exist.
+   *
+   * @param file the table file
+   * @param width the width of the puzzle
+   * @param height the height of the puzzle
+   * @param pattern the tiles in the pattern
+   * @return the pattern database
+   * @throws IOException if the table cannot be read or written
+   */
+  public static PatternDatabase open(File file, int width, int height,
+      int[] pattern) throws IOException {
+    long size = size(width * height, pattern.length);
+    if (!file.exists()) {
+      write(file, generate(width, height, pattern));
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+        FileChannel channel = raf.getChannel()) {
+      if (channel.size() != size)
+        throw new IOException("Unexpected table size: "+file);
+      MappedByteBuffer buffer =
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      return new PatternDatabase(width, height, pattern, buffer);
+    }
+  }
+
+  /**
+   * Returns the tiles in the pattern.
+   *
+   * @return the tiles in the pattern
+   */
+  public int[] getPattern() {
+    return pattern.clone();
+  }
+
+  /**
+   * Returns the table entry for the specified tile positions.
+   *
+   * @param pos the position of each tile, indexed by tile
+   * @return the heuristic value
+   */
+  public int lookup(int[] pos) {
+    int rank = 0;
+    int used = 0;
+    for (int i = 0; i < pattern.length; i++) {
+      int p = pos[pattern[i]];
+      rank += (p - Integer.bitCount(used & ((1 << p) - 1))) * mult[i];
+      used |= 1 << p;
+    }
+    return table.get(rank) & 0xFF;
+  }
+
+  /**
+   * Builds the table for the specified pattern by a breadth-first search
+   * backwards from the goal.  The search space is the positions of the
+   * pattern tiles plus the blank.  Moving the blank onto a pattern tile
+   * costs one and moving it onto any other cell is free, so each layer is
+   * closed under free moves before the next one is started.
+   *
+   * @param width the width of the puzzle
+   * @param height the height of the puzzle
+   * @param pattern the tiles in the pattern
+   * @return the table
+   */
+  public static byte[] generate(int width, int height, int[] pattern) {
+    int ncells = width * height;
+    int k = pattern.length;
+    if (ncells > 31)
+      throw new IllegalArgumentException("Puzzle too large");
+    for (int t : pattern)
+      if (t <= 0 || t >= ncells)
+        throw new IllegalArgumentException("Invalid tile: "+t);
+
+    long patternSize = size(ncells, k);
+    long stateSize = size(ncells, k+1);
+    if (stateSize > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Pattern too large");
+    int[] patternMult = multipliers(ncells, k);
+    int[] stateMult = multipliers(ncells, k+1);
+
+    byte[] table = new byte[(int)patternSize];
+    Arrays.fill(table, (byte)-1);
+    long[] visited = new long[(int)((stateSize + 63) >>> 6)];
+
+    // states are the positions of the pattern tiles and the blank,
+    // 5 bits each, with the blank in the lowest bits
+    long goal = 0;
+    for (int i = 0; i < k; i++)
+      goal = (goal << 5) | pattern[i];
+    goal <<= 5;
+
+    int[] pos = new int[k+1];
+    LongList cur = new LongList();
+    LongList next = new LongList();
+    mark(visited, rank(unpack(goal, pos), stateMult));
+    cur.add(goal);
+
+    for (int depth = 0; cur.size > 0; depth++) {
+      for (int i = 0; i < cur.size; i++) {
+        long s = cur.values[i];
+        unpack(s, pos);
+        int patternRank = rank(pos, patternMult);
+        if (table[patternRank] == -1)
+          table[patternRank] = (byte)depth;
+
+        int blank = pos[k];
+        int occupied = 0;
+        for (int j = 0; j < k; j++)
+          occupied |= 1 << pos[j];
+        int row = blank / width, col = blank % width;
+        for (int m = 0; m < 4; m++) {
+          int nb;
+          if (m == 0 && row > 0) nb = blank - width;
+          else if (m == 1 && col > 0) nb = blank - 1;
+          else if (m == 2 && col < width - 1) nb = blank + 1;
+          else if (m == 3 && row < height - 1) nb = blank + width;
+          else continue;
+          if ((occupied & (1 << nb)) != 0) {
+            // a pattern tile moves into the blank
+            int j = 0;
+            while (pos[j] != nb) j++;
+            pos[j] = blank;
+            pos[k] = nb;
+            next.add(pack(pos));
+            pos[j] = nb;
+            pos[k] = blank;
+          }
+          else {
+            pos[k] = nb;
+            int r = rank(pos, stateMult);
+            if (!isMarked(visited, r)) {
+              mark(visited, r);
+              cur.add(pack(pos));
+            }
+            pos[k] = blank;
+          }
+        }
+      }
+
+      LongList tmp = cur;
+      cur = next;
+      next = tmp;
+      next.size = 0;
+      int n = 0;
+      for (int i = 0; i < cur.size; i++) {
+        long s = cur.values[i];
+        int r = rank(unpack(s, pos), stateMult);
+        if (!isMarked(visited, r)) {
+          mark(visited, r);
+          cur.values[n++] = s;
+        }
+      }
+      cur.size = n;
+    }
+    return table;
+  }
+
+  private static void write(File file, byte[] table) throws IOException {
+    File tmp = new File(file.getPath()+".tmp");
+    try (RandomAccessFile raf = new RandomAccessFile(tmp, "rw");
+        FileChannel channel = raf.getChannel()) {
+      channel.truncate(0);
+      ByteBuffer buffer = ByteBuffer.wrap(table);
+      while (buffer.hasRemaining())
+        channel.write(buffer);
+      channel.force(true);
+    }
+    if (!tmp.renameTo(file) && !file.exists())
+      throw new IOException("Unable to write table: "+file);
+    tmp.delete();
+  }
+
+  /*
+   * Ranks the positions as a partial permutation.
+   */
+  private static int rank(int[] pos, int[] mult) {
+    int rank = 0;
+    int used = 0;
+    for (int i = 0; i < mult.length; i++) {
+      int p = pos[i];
+      rank += (p - Integer.bitCount(used & ((1 << p) - 1))) * mult[i];
+      used |= 1 << p;
+    }
+    return rank;
+  }
+
+  private static long pack(int[] pos) {
+    long s = 0;
+    for (int i = 0; i < pos.length; i++)
+      s = (s << 5) | pos[i];
+    return s;
+  }
+
+  private static int[] unpack(long s, int[] pos) {
+    for (int i = pos.length - 1; i >= 0; i--) {
+      pos[i] = (int)(s & 0x1F);
+      s >>>= 5;
+    }
+    return pos;
+  }
+
+  private static boolean isMarked(long[] bits, int i) {
+    return (bits[i >>> 6] & (1L << i)) != 0;
+  }
+
+  private static void mark(long[] bits, int i) {
+    bits[i >>> 6] |= 1L << i;
+  }
+
+  /*
+   * The number of placements of k tiles on n cells.
+   */
+  private static long size(int n, int k) {
+    long size = 1;
+    for (int i = 0; i < k; i++)
+      size *= n - i;
+    return size;
+  }
+
+  /*
+   * The radix of each digit of a partial permutation rank.
+   */
+  private static int[] multipliers(int n, int k) {
+    int[] mult = new int[k];
+    for (int i = 0; i < k; i++)
+      mult[i] = (int)size(n - 1 - i, k - 1 - i);
+    return mult;
+  }
+
+  /*
+   * A growable list of longs.
+   */
+  private static final class LongList {
+    long[] values = new long[1024];
+    int size;
+    void add(long v) {
+      if (size == values.length)
+        values = Arrays.copyOf(values, size << 1);
+      values[size++] = v;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return width+"x"+height+" "+Arrays.toString(pattern);
+  }
+
+}
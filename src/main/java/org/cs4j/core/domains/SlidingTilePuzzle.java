@@ -0,0 +1,433 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.domains;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+
+import org.cs4j.core.InPlaceSearchDomain;
+import org.cs4j.core.WideSearchDomain;
+
+/**
+ * The unit cost sliding-tiles domain class for boards of any width and
+ * height, such as the 8, 15 and 24 puzzles.  Tiles are packed with as few
+ * bits as the board size allows, spilling into several words for boards
+ * larger than 4x4 (the 24 puzzle packs into two longs).
+ * 
+ * The heuristic is the Manhattan distance, optionally with linear
+ * conflicts, both of which are updated incrementally as tiles move.
+ * 
+ * @author Matthew Hatem
+ */
+public final class SlidingTilePuzzle implements InPlaceSearchDomain, 
+	WideSearchDomain {
+  
+  private final int width;
+  private final int height;
+  private final int Ntiles;
+  private final int bits;
+  private final int words;
+  private final long mask;
+  private int init[];
+  
+  private int md[][];
+  private int optab_n[];
+  private int optab_ops[][];
+  private Operator oplookup[];
+  
+  private HEURISTIC heuristic;
+  
+  public enum HEURISTIC {MANHATTAN, LINEAR_CONFLICT};
+  
+  /**
+   * The constructor reads a tiles problem instance from the specified
+   * input stream.
+   * 
+   * @param stream the input stream
+   */
+  public SlidingTilePuzzle(InputStream stream) {
+    this(stream, HEURISTIC.MANHATTAN);
+  }
+  
+  /**
+   * The constructor reads a tiles problem instance from the specified
+   * input stream.  The first line holds the width and the height of the
+   * board, followed by the position of each tile and the goal position of
+   * each tile, which must be canonical.
+   * 
+   * @param stream the input stream
+   * @param heuristic the heuristic
+   */
+  public SlidingTilePuzzle(InputStream stream, HEURISTIC heuristic) {
+    this.heuristic = heuristic;
+    int w = 0, h = 0;
+    try {
+      BufferedReader reader = new BufferedReader(
+          new InputStreamReader(stream));
+      String dim[] = reader.readLine().trim().split("\\s+");
+      w = Integer.parseInt(dim[0]);
+      h = Integer.parseInt(dim[(dim.length > 1) ? 1 : 0]);
+      if (w < 2 || h < 2 || w * h > 64)
+        throw new IllegalArgumentException("Invalid board: "+w+"x"+h);
+      
+      init = new int[w * h];
+      Arrays.fill(init, -1);
+      reader.readLine();
+      for (int t = 0; t < w * h; t++) {
+        int p = Integer.parseInt(reader.readLine().trim());
+        init[p] = t;
+      }
+      
+      reader.readLine();
+      for (int t = 0; t < w * h; t++) {
+        int p = Integer.parseInt(reader.readLine().trim());
+        if (p != t)
+          throw new IllegalArgumentException("Non-canonical goal positions");
+      }
+    }
+    catch (IOException exception) {
+      exception.printStackTrace();
+    }
+    
+    this.width = w;
+    this.height = h;
+    this.Ntiles = w * h;
+    this.bits = 32 - Integer.numberOfLeadingZeros(Ntiles - 1);
+    this.words = (Ntiles * bits + 63) >>> 6;
+    this.mask = (1L << bits) - 1;
+    initmd();
+    initoptab();
+    oplookup = new Operator[Ntiles];
+    for (int i = 0; i < Ntiles; i++)
+      oplookup[i] = new SlidingTileOperator(i);
+  }
+  
+  /**
+   * Returns the width of the board.
+   * 
+   * @return the width
+   */
+  public int getWidth() {
+    return width;
+  }
+  
+  /**
+   * Returns the height of the board.
+   * 
+   * @return the height
+   */
+  public int getHeight() {
+    return height;
+  }
+  
+  @Override
+  public State initialState() {
+    TileState s = new TileState(this);
+    for (int i = 0; i < Ntiles; i++) {
+      if (init[i] < 0)
+        throw new IllegalArgumentException("Missing tile at position "+i);
+      s.tiles[i] = init[i];
+      if (init[i] == 0) s.blank = i;
+    }
+    estimate(s);
+    return s;
+  }
+  
+  @Override
+  public boolean isGoal(State state) {
+    return ((TileState)state).md == 0;
+  }
+  
+  @Override
+  public int getNumOperators(State state) {
+    return optab_n[((TileState)state).blank];
+  }
+
+  @Override
+  public Operator getOperator(State s, int index) {
+  	TileState ts = (TileState)s;
+    return oplookup[optab_ops[ts.blank][index]];
+  }
+  
+  @Override
+  public State copy(State s) {
+  	TileState ts = (TileState)s;
+    TileState copy = new TileState(this);
+    System.arraycopy(ts.tiles, 0, copy.tiles, 0, Ntiles);
+    System.arraycopy(ts.rowlc, 0, copy.rowlc, 0, height);
+    System.arraycopy(ts.collc, 0, copy.collc, 0, width);
+    copy.blank = ts.blank;
+    copy.md = ts.md;
+    copy.lc = ts.lc;
+    return copy;
+  }
+  
+  @Override
+  public State applyOperator(State s, Operator op) {
+  	TileState ts = (TileState)copy(s);
+    move(ts, ((SlidingTileOperator)op).value);
+    return ts;
+  }
+  
+  @Override
+  public int apply(State s, Operator op) {
+  	TileState ts = (TileState)s;
+  	int blank = ts.blank;
+    move(ts, ((SlidingTileOperator)op).value);
+    return blank;
+  }
+  
+  @Override
+  public void undo(State s, int blank) {
+  	move((TileState)s, blank);
+  }
+  
+  /*
+   * Moves the blank to the specified position.  Only the tile that moves
+   * changes the Manhattan distance, and only the two rows (vertical move)
+   * or two columns (horizontal move) it leaves and enters can change their
+   * linear conflicts.
+   */
+  private void move(TileState ts, int newb) {
+    int blank = ts.blank;
+    int tile = ts.tiles[newb];
+    ts.tiles[blank] = tile;
+    ts.tiles[newb] = 0;
+    ts.blank = newb;
+    ts.md += md[tile][blank] - md[tile][newb];
+    if (heuristic == HEURISTIC.LINEAR_CONFLICT) {
+      if (blank / width == newb / width) {
+        ts.lc += updateColumn(ts, blank % width) + 
+            updateColumn(ts, newb % width);
+      }
+      else {
+        ts.lc += updateRow(ts, blank / width) + updateRow(ts, newb / width);
+      }
+    }
+  }
+  
+  /*
+   * Computes the heuristic of the state from scratch.
+   */
+  private void estimate(TileState ts) {
+    ts.md = 0;
+    for (int i = 0; i < Ntiles; i++) {
+      if (ts.tiles[i] != 0)
+        ts.md += md[ts.tiles[i]][i];
+    }
+    ts.lc = 0;
+    if (heuristic == HEURISTIC.LINEAR_CONFLICT) {
+      for (int r = 0; r < height; r++)
+        ts.lc += updateRow(ts, r);
+      for (int c = 0; c < width; c++)
+        ts.lc += updateColumn(ts, c);
+    }
+  }
+  
+  /*
+   * Recomputes the linear conflicts of the row, returns the change.
+   */
+  private int updateRow(TileState ts, int row) {
+    long tails = 0;
+    int n = 0;
+    for (int i = row * width; i < (row + 1) * width; i++) {
+      int t = ts.tiles[i];
+      if (t != 0 && t / width == row) {
+        tails = increasing(tails, t % width);
+        n++;
+      }
+    }
+    int lc = (n - Long.bitCount(tails)) << 1;
+    int delta = lc - ts.rowlc[row];
+    ts.rowlc[row] = lc;
+    return delta;
+  }
+  
+  /*
+   * Recomputes the linear conflicts of the column, returns the change.
+   */
+  private int updateColumn(TileState ts, int col) {
+    long tails = 0;
+    int n = 0;
+    for (int i = col; i < Ntiles; i += width) {
+      int t = ts.tiles[i];
+      if (t != 0 && t % width == col) {
+        tails = increasing(tails, t / width);
+        n++;
+      }
+    }
+    int lc = (n - Long.bitCount(tails)) << 1;
+    int delta = lc - ts.collc[col];
+    ts.collc[col] = lc;
+    return delta;
+  }
+  
+  /*
+   * One step of patience sorting over a bit set of pile tails: the goal
+   * position x replaces the smallest tail not below it.  The number of
+   * tails is the length of the longest increasing subsequence, so the
+   * tiles in a line that are not part of it must leave the line and come
+   * back, two moves each beyond their Manhattan distance.
+   */
+  private static long increasing(long tails, int x) {
+    long above = tails & (-1L << x);
+    return (tails & ~(above & -above)) | (1L << x);
+  }
+  
+  @Override
+  public int getPackedWords() {
+    return words;
+  }
+  
+  @Override
+  public void pack(State s, long[] packed) {
+  	TileState ts = (TileState)s;
+    Arrays.fill(packed, 0, words, 0);
+    for (int i = 0; i < Ntiles; i++) {
+      long t = ts.tiles[i];
+      int offset = i * bits;
+      int w = offset >>> 6, shift = offset & 63;
+      packed[w] |= t << shift;
+      // a tile may straddle two words
+      if (shift + bits > 64)
+        packed[w + 1] |= t >>> (64 - shift);
+    }
+  }
+  
+  @Override
+  public State unpack(long[] packed) {
+    TileState ts = new TileState(this);
+    for (int i = 0; i < Ntiles; i++) {
+      int offset = i * bits;
+      int w = offset >>> 6, shift = offset & 63;
+      long t = packed[w] >>> shift;
+      if (shift + bits > 64)
+        t |= packed[w + 1] << (64 - shift);
+      ts.tiles[i] = (int)(t & mask);
+      if (ts.tiles[i] == 0)
+        ts.blank = i;
+    }
+    estimate(ts);
+    return ts;
+  }
+  
+  @Override
+  public long pack(State s) {
+    checkPackedWords();
+    long packed[] = new long[1];
+    pack(s, packed);
+    return packed[0];
+  }
+  
+  @Override
+  public State unpack(long word) {
+    checkPackedWords();
+    return unpack(new long[] {word});
+  }
+  
+  private void checkPackedWords() {
+    if (words > 1)
+      throw new UnsupportedOperationException(
+          width+"x"+height+" boards need wide packing");
+  }
+  
+  /*
+   * Initializes the Manhattan distance heuristic table.
+   */
+  private void initmd() {
+    md = new int[Ntiles][Ntiles];
+    for (int t = 1; t < Ntiles; t++) {
+      int grow = t / width, gcol = t % width;
+      for (int l = 0; l < Ntiles; l++) {
+        int row = l / width, col = l % width;
+        md[t][l] = Math.abs(col - gcol) + Math.abs(row - grow);
+      }
+    }
+  }
+  
+  /*
+   * Initializes the operators.
+   */
+  private void initoptab() {
+    optab_n = new int[Ntiles];
+    optab_ops = new int[Ntiles][4];
+    for (int i = 0; i < Ntiles; i++) {
+      if (i >= width)
+        optab_ops[i][optab_n[i]++] = i - width;
+      if (i % width > 0)
+        optab_ops[i][optab_n[i]++] = i - 1;
+      if (i % width < width - 1)
+        optab_ops[i][optab_n[i]++] = i + 1;
+      if (i < Ntiles - width)
+        optab_ops[i][optab_n[i]++] = i + width;
+    }
+  }
+
+  /**
+   * The tile state class.
+   */
+  private static final class TileState implements State {
+    
+    private int tiles[];
+    private int rowlc[], collc[];
+    private int blank, md, lc;
+    
+    private TileState(SlidingTilePuzzle puzzle) {
+      tiles = new int[puzzle.Ntiles];
+      rowlc = new int[puzzle.height];
+      collc = new int[puzzle.width];
+    }
+    
+    @Override
+    public double getH() {
+    	return md + lc;
+    }
+    
+    @Override
+    public double getD() {
+    	return md + lc;
+    }
+    
+  }
+  
+  /**
+   * The operator class.
+   */
+  private final class SlidingTileOperator implements Operator {
+  	
+  	private int value;
+  	
+  	private SlidingTileOperator(int value) {
+  		this.value = value;
+  	}
+  	
+  	@Override
+  	public double getCost(State s) {
+      return 1.0;
+  	}
+  	
+  	@Override
+  	public Operator reverse(State s) {
+  		TileState ts = (TileState)s;
+  		return oplookup[ts.blank];
+  	}
+  }
+  
+}
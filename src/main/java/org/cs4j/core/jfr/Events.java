@@ -0,0 +1,207 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * The event classes.  SearchEvents loads this class by name, and only
+ * when jdk.jfr is available.  It is left out of builds on JDKs without
+ * jdk.jfr.
+ *
+ * @author Matthew Hatem
+ */
+final class Events implements Recorder {
+
+  Events() {
+  }
+
+  @Override
+  public boolean isInitialized() {
+    return FlightRecorder.isInitialized();
+  }
+
+  @Override
+  public Object searchStarted(String algorithm, String domain) {
+    SearchStarted started = new SearchStarted();
+    started.algorithm = algorithm;
+    started.domain = domain;
+    started.commit();
+    SearchFinished finished = new SearchFinished();
+    finished.algorithm = algorithm;
+    finished.domain = domain;
+    finished.begin();
+    return finished;
+  }
+
+  @Override
+  public void searchFinished(Object token, long expanded, long generated) {
+    SearchFinished e = (SearchFinished)token;
+    e.end();
+    if (!e.shouldCommit())
+      return;
+    e.expanded = expanded;
+    e.generated = generated;
+    e.commit();
+  }
+
+  @Override
+  public Object begin(int type) {
+    Event e;
+    switch (type) {
+    case ITERATION: e = new Iteration(); break;
+    case LAYER: e = new Layer(); break;
+    default: e = new FocalUpdate(); break;
+    }
+    if (!e.isEnabled())
+      return null;
+    e.begin();
+    return e;
+  }
+
+  @Override
+  public void iterationFinished(Object token, double bound, long expanded, 
+      long generated) {
+    Iteration e = (Iteration)token;
+    e.end();
+    if (!e.shouldCommit())
+      return;
+    e.bound = bound;
+    e.expanded = expanded;
+    e.generated = generated;
+    e.commit();
+  }
+
+  @Override
+  public void layerFinished(Object token, double f, long expanded, 
+      int openSize) {
+    Layer e = (Layer)token;
+    e.end();
+    if (!e.shouldCommit())
+      return;
+    e.f = f;
+    e.expanded = expanded;
+    e.openSize = openSize;
+    e.commit();
+  }
+
+  @Override
+  public void focalUpdated(Object token, int sizeBefore, int sizeAfter) {
+    FocalUpdate e = (FocalUpdate)token;
+    e.end();
+    if (!e.shouldCommit())
+      return;
+    e.sizeBefore = sizeBefore;
+    e.sizeAfter = sizeAfter;
+    e.commit();
+  }
+
+  @Override
+  public void heapResized(Class<?> heap, int oldCapacity, int newCapacity) {
+    HeapResize e = new HeapResize();
+    if (!e.shouldCommit())
+      return;
+    e.heap = heap.getSimpleName();
+    e.oldCapacity = oldCapacity;
+    e.newCapacity = newCapacity;
+    e.commit();
+  }
+
+  @Name("cs4j.SearchStarted")
+  @Label("Search Started")
+  @Category("cs4j")
+  static final class SearchStarted extends Event {
+    @Label("Algorithm")
+    String algorithm;
+    @Label("Domain")
+    String domain;
+  }
+
+  @Name("cs4j.SearchFinished")
+  @Label("Search Finished")
+  @Category("cs4j")
+  static final class SearchFinished extends Event {
+    @Label("Algorithm")
+    String algorithm;
+    @Label("Domain")
+    String domain;
+    @Label("Expanded")
+    long expanded;
+    @Label("Generated")
+    long generated;
+  }
+
+  @Name("cs4j.Iteration")
+  @Label("Iteration")
+  @Category("cs4j")
+  @Description("An iteration of an iterative deepening search")
+  static final class Iteration extends Event {
+    @Label("Bound")
+    double bound;
+    @Label("Expanded")
+    @Description("The nodes expanded since the search started")
+    long expanded;
+    @Label("Generated")
+    @Description("The nodes generated since the search started")
+    long generated;
+  }
+
+  @Name("cs4j.Layer")
+  @Label("F Layer")
+  @Category("cs4j")
+  @Description("The expansion of the nodes with one f value")
+  static final class Layer extends Event {
+    @Label("F")
+    double f;
+    @Label("Expanded")
+    long expanded;
+    @Label("Open Size")
+    int openSize;
+  }
+
+  @Name("cs4j.FocalUpdate")
+  @Label("Focal Update")
+  @Category("cs4j")
+  @Description("Nodes moved in or out of focal after the best f changed")
+  // focal changes on most expansions, only slow updates are recorded
+  @Threshold("100 us")
+  static final class FocalUpdate extends Event {
+    @Label("Size Before")
+    int sizeBefore;
+    @Label("Size After")
+    int sizeAfter;
+  }
+
+  @Name("cs4j.HeapResize")
+  @Label("Heap Resize")
+  @Category("cs4j")
+  static final class HeapResize extends Event {
+    @Label("Heap")
+    String heap;
+    @Label("Old Capacity")
+    int oldCapacity;
+    @Label("New Capacity")
+    int newCapacity;
+  }
+
+}
@@ -0,0 +1,48 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.jfr;
+
+/**
+ * Records the events of SearchEvents.  The implementation, Events, needs
+ * jdk.jfr to compile, so SearchEvents only refers to it by name.
+ *
+ * @author Matthew Hatem
+ */
+interface Recorder {
+
+  int ITERATION = 0;
+  int LAYER = 1;
+  int FOCAL = 2;
+
+  boolean isInitialized();
+
+  Object searchStarted(String algorithm, String domain);
+
+  void searchFinished(Object token, long expanded, long generated);
+
+  Object begin(int type);
+
+  void iterationFinished(Object token, double bound, long expanded, 
+      long generated);
+
+  void layerFinished(Object token, double f, long expanded, int openSize);
+
+  void focalUpdated(Object token, int sizeBefore, int sizeAfter);
+
+  void heapResized(Class<?> heap, int oldCapacity, int newCapacity);
+
+}
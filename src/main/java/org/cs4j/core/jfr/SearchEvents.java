@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.jfr;
+
+/**
+ * Emits JDK Flight Recorder events about searches and the collections they
+ * use, so that search progress can be lined up with GC pauses and CPU
+ * samples in a recording.  The events are in the cs4j category.
+ *
+ * The library targets Java 7, so the events are only loaded when the
+ * running JVM has the jdk.jfr module and the library was built on JDK 11
+ * or later.  Otherwise, or when the cs4j.jfr system property is false,
+ * every method does nothing.  Events are only
+ * created once the flight recorder has been initialized by a recording, so
+ * runs without one never pay for loading the event classes.  Events are
+ * emitted only at coarse points: the start and end of a search, an
+ * iteration, an f layer, a focal list update and a heap resize.
+ *
+ * Methods that begin a duration event return a token to pass to the
+ * matching end method.  The token may be null.
+ *
+ * @author Matthew Hatem
+ */
+public final class SearchEvents {
+
+  private static final Recorder recorder = load();
+
+  public static final boolean ENABLED = recorder != null;
+
+  private SearchEvents() {
+  }
+
+  /**
+   * Emits the search started event and begins the search finished event.
+   *
+   * @param algorithm the algorithm name
+   * @param domain the domain name
+   * @return the token for searchFinished
+   */
+  public static Object searchStarted(String algorithm, String domain) {
+    return isRecording() ? recorder.searchStarted(algorithm, domain) : null;
+  }
+
+  /**
+   * Ends the search finished event.
+   *
+   * @param token the token from searchStarted
+   * @param expanded the number of nodes expanded
+   * @param generated the number of nodes generated
+   */
+  public static void searchFinished(Object token, long expanded, 
+      long generated) {
+    if (token != null)
+      recorder.searchFinished(token, expanded, generated);
+  }
+
+  /**
+   * Begins an iteration of an iterative deepening search.
+   *
+   * @return the token for iterationFinished
+   */
+  public static Object iterationStarted() {
+    return isRecording() ? recorder.begin(Recorder.ITERATION) : null;
+  }
+
+  /**
+   * Ends an iteration of an iterative deepening search.
+   *
+   * @param token the token from iterationStarted
+   * @param bound the bound of the iteration
+   * @param expanded the total number of nodes expanded
+   * @param generated the total number of nodes generated
+   */
+  public static void iterationFinished(Object token, double bound, 
+      long expanded, long generated) {
+    if (token != null)
+      recorder.iterationFinished(token, bound, expanded, generated);
+  }
+
+  /**
+   * Begins an f layer of a best-first search.
+   *
+   * @return the token for layerFinished
+   */
+  public static Object layerStarted() {
+    return isRecording() ? recorder.begin(Recorder.LAYER) : null;
+  }
+
+  /**
+   * Ends an f layer of a best-first search.
+   *
+   * @param token the token from layerStarted
+   * @param f the f value of the layer
+   * @param expanded the number of nodes expanded in the layer
+   * @param openSize the size of the open list at the end of the layer
+   */
+  public static void layerFinished(Object token, double f, long expanded, 
+      int openSize) {
+    if (token != null)
+      recorder.layerFinished(token, f, expanded, openSize);
+  }
+
+  /**
+   * Begins an update of a focal list after its best node changed.
+   *
+   * @return the token for focalUpdated
+   */
+  public static Object focalUpdateStarted() {
+    return isRecording() ? recorder.begin(Recorder.FOCAL) : null;
+  }
+
+  /**
+   * Ends an update of a focal list.
+   *
+   * @param token the token from focalUpdateStarted
+   * @param sizeBefore the size of focal before the update
+   * @param sizeAfter the size of focal after the update
+   */
+  public static void focalUpdated(Object token, int sizeBefore, 
+      int sizeAfter) {
+    if (token != null)
+      recorder.focalUpdated(token, sizeBefore, sizeAfter);
+  }
+
+  /**
+   * Emits a heap resize event.
+   *
+   * @param heap the heap class
+   * @param oldCapacity the capacity before the resize
+   * @param newCapacity the capacity after the resize
+   */
+  public static void heapResized(Class<?> heap, int oldCapacity, 
+      int newCapacity) {
+    if (isRecording())
+      recorder.heapResized(heap, oldCapacity, newCapacity);
+  }
+
+  private static boolean isRecording() {
+    return ENABLED && recorder.isInitialized();
+  }
+
+  private static Recorder load() {
+    if (!Boolean.parseBoolean(System.getProperty("cs4j.jfr", "true")))
+      return null;
+    try {
+      Class.forName("jdk.jfr.Event");
+      // absent when built on a JDK without jdk.jfr
+      return (Recorder)Class.forName("org.cs4j.core.jfr.Events")
+          .getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.test.algorithms;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cs4j.core.SearchAlgorithm;
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchDomain.Operator;
+import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchLimits;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.SearchResult.Solution;
+import org.cs4j.core.SearchResult.Status;
+import org.cs4j.core.SolutionListener;
+import org.cs4j.core.algorithms.ARAstar;
+import org.cs4j.core.algorithms.Astar;
+import org.cs4j.core.algorithms.Astar.HeapType;
+import org.cs4j.core.algorithms.ExternalAstar;
+import org.cs4j.core.algorithms.FrontierAstar;
+import org.cs4j.core.algorithms.MM;
+import org.cs4j.core.algorithms.ParallelEES;
+import org.cs4j.core.domains.FifteenPuzzle;
+import org.cs4j.core.domains.Pancakes;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Tests of the memory bounded and parallel algorithms, kept apart from
+ * the basic tests whose timing checks they would disturb.
+ */
+public class TestAdvancedAlgorithms {
+
+	private TestAllBasics basics = new TestAllBasics();
+
+	@Test
+	public void testAstarQuantizedBucketHeapSqrt() throws FileNotFoundException {
+		SearchDomain domain = new FifteenPuzzle(new FileInputStream(
+				new File("input/fifteenpuzzle/korf100/12")), FifteenPuzzle.COST_FUNCTION.SQRT);
+		SearchResult result = new Astar(HeapType.QUANTIZED).search(domain);
+		double cost = result.getSolutions().get(0).getCost();
+		// within the default epsilon of the optimal cost
+		Assert.assertEquals(118.142, cost, 0.001);
+		Assert.assertEquals(new Astar(HeapType.BIN).search(domain)
+				.getSolutions().get(0).getCost(), cost, 0.001);
+	}
+	
+	@Test
+	public void testFrontierAstar() throws FileNotFoundException {
+		SearchDomain domain = basics.createFifteenPuzzle("12");
+		SearchAlgorithm algo = new FrontierAstar();
+		basics.testSearchAlgorithm(domain, algo, 45);
+	}	
+	
+	@Test
+	public void testFrontierAstarPath() {
+		String instance = "8\n3 7 1 5 0 6 2 4\n";
+		SearchDomain domain = new Pancakes(
+				new ByteArrayInputStream(instance.getBytes()), Pancakes.COST_FUNCTION.HEAVY);
+		double cost = new Astar().search(domain).getSolutions().get(0).getCost();
+		Solution solution = new FrontierAstar().search(domain).getSolutions().get(0);
+		Assert.assertEquals(cost, solution.getCost(), 0);
+		// the path recovered through the relays must lead to the goal
+		State state = domain.initialState();
+		double g = 0;
+		for (Operator op : solution.getOperators()) {
+			if (op == null)
+				continue;
+			g += op.getCost(state);
+			state = domain.applyOperator(state, op);
+		}
+		Assert.assertTrue(domain.isGoal(state));
+		Assert.assertEquals(cost, g, 0);
+	}	
+	
+	@Test
+	public void testExternalAstar() throws FileNotFoundException {
+		SearchDomain domain = basics.createFifteenPuzzle("12");
+		// small runs so that buckets are merged from several runs
+		SearchAlgorithm algo = new ExternalAstar(null, 4096);
+		basics.testSearchAlgorithm(domain, algo, 45);
+	}	
+	
+	@Test
+	public void testExternalAstarHeavyPancakes() {
+		String instance = "8\n3 7 1 5 0 6 2 4\n";
+		SearchDomain domain = new Pancakes(
+				new ByteArrayInputStream(instance.getBytes()), Pancakes.COST_FUNCTION.HEAVY);
+		double cost = new Astar().search(domain).getSolutions().get(0).getCost();
+		SearchResult result = new ExternalAstar().search(domain);
+		Assert.assertEquals(cost, result.getSolutions().get(0).getCost(), 0);
+	}	
+	
+	@Test
+	public void testExternalAstarCleanup() throws IOException {
+		File dir = Files.createTempDirectory("cs4j-test").toFile();
+		try {
+			SearchDomain domain = basics.createFifteenPuzzle("12");
+			new ExternalAstar(dir, 4096).search(domain);
+			Assert.assertEquals(0, dir.list().length);
+			// more than 20 cakes cannot be packed, so the search fails
+			StringBuilder cakes = new StringBuilder("21\n");
+			for (int i = 20; i >= 0; i--)
+				cakes.append(i).append(' ');
+			domain = new Pancakes(new ByteArrayInputStream(
+					cakes.toString().getBytes()), Pancakes.COST_FUNCTION.UNIT);
+			try {
+				new ExternalAstar(dir, 4096).search(domain);
+				Assert.fail();
+			} catch (UnsupportedOperationException e) {
+				// expected
+			}
+			Assert.assertEquals(0, dir.list().length);
+		} finally {
+			dir.delete();
+		}
+	}	
+	
+	@Test
+	public void testMMHeavyPancakes() {
+		String instance = "8\n3 7 1 5 0 6 2 4\n";
+		SearchDomain domain = new Pancakes(
+				new ByteArrayInputStream(instance.getBytes()), Pancakes.COST_FUNCTION.HEAVY);
+		double cost = new Astar().search(domain).getSolutions().get(0).getCost();
+		SearchResult result = new MM().search(domain);
+		Assert.assertEquals(cost, result.getSolutions().get(0).getCost(), 0);
+	}	
+	
+	@Test
+	public void testParallelEES() throws FileNotFoundException {
+		SearchDomain domain = basics.createFifteenPuzzle("12");
+		// a weight of one must still find the optimal solution
+		basics.testSearchAlgorithm(domain, new ParallelEES(1, 4), 45);
+		SearchResult result = new ParallelEES(2, 4).search(domain);
+		Assert.assertTrue(result.getSolutions().get(0).getCost() <= 2*45);
+	}
+	
+	@Test
+	public void testARAstar() throws FileNotFoundException {
+		SearchDomain domain = basics.createFifteenPuzzle("42");
+		ARAstar algo = new ARAstar(3, 0.5);
+		final List<Solution> published = new ArrayList<>();
+		algo.setSolutionListener(new SolutionListener() {
+			@Override
+			public void onSolution(Solution solution, double weight) {
+				published.add(solution);
+			}
+		});
+		SearchResult result = algo.search(domain);
+		List<Solution> solutions = result.getSolutions();
+		Assert.assertEquals(published, solutions);
+		Assert.assertTrue(solutions.size() > 1);
+		for (int i = 1; i < solutions.size(); i++) {
+			Assert.assertTrue(solutions.get(i).getCost() < solutions.get(i-1).getCost());
+		}
+		Solution best = solutions.get(solutions.size()-1);
+		Assert.assertEquals(42, best.getCost(), 0);
+		Assert.assertEquals(43, best.getLength());
+		Assert.assertEquals(Status.SOLVED, result.getStatus());
+		
+		// an early stop still returns the first solution
+		SearchLimits limits = new SearchLimits();
+		limits.setMaxExpanded(5000);
+		result = algo.search(domain, limits);
+		Assert.assertEquals(Status.EXPANSION_LIMIT, result.getStatus());
+		Assert.assertFalse(result.getSolutions().isEmpty());
+	}
+
+}
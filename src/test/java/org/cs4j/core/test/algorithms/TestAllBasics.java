@@ -16,10 +16,13 @@
  */
 package org.cs4j.core.test.algorithms;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 
 import org.cs4j.core.SearchAlgorithm;
 import org.cs4j.core.SearchDomain;
@@ -27,12 +30,19 @@ import org.cs4j.core.SearchResult;
 import org.cs4j.core.SearchResult.Solution;
 import org.cs4j.core.algorithms.Astar;
 import org.cs4j.core.algorithms.Astar.HeapType;
+import org.cs4j.core.algorithms.CompactAstar;
 import org.cs4j.core.algorithms.EES;
+import org.cs4j.core.algorithms.EPEAstar;
+import org.cs4j.core.algorithms.HDAstar;
 import org.cs4j.core.algorithms.IDAstar;
+import org.cs4j.core.algorithms.MM;
+import org.cs4j.core.algorithms.ParallelIDAstar;
 import org.cs4j.core.algorithms.RBFS;
 import org.cs4j.core.algorithms.WAstar;
 import org.cs4j.core.algorithms.WRBFS;
+import org.cs4j.core.domains.AdditivePatternDatabase;
 import org.cs4j.core.domains.FifteenPuzzle;
+import org.cs4j.core.domains.Pancakes;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -53,6 +63,34 @@ public class TestAllBasics {
 		testSearchAlgorithm(domain, algo, 64963, 32334, 45);
 	}		
 	
+	@Test
+	public void testAstarQuantizedBucketHeap() throws FileNotFoundException {
+		SearchDomain domain = createFifteenPuzzle("12");
+		SearchAlgorithm algo = new Astar(HeapType.QUANTIZED);
+		testSearchAlgorithm(domain, algo, 64963, 32334, 45);
+	}	
+	
+	@Test
+	public void testAstarDaryHeap() throws FileNotFoundException {
+		SearchDomain domain = createFifteenPuzzle("12");
+		SearchAlgorithm algo = new Astar(HeapType.DARY);
+		testSearchAlgorithm(domain, algo, 65128, 32406, 45);
+	}	
+	
+	@Test
+	public void testEPEAstar() throws FileNotFoundException {
+		SearchDomain domain = createFifteenPuzzle("12");
+		SearchAlgorithm algo = new EPEAstar();
+		testSearchAlgorithm(domain, algo, 33698, 37270, 45);
+	}	
+	
+	@Test
+	public void testCompactAstar() throws FileNotFoundException {
+		SearchDomain domain = createFifteenPuzzle("12");
+		SearchAlgorithm algo = new CompactAstar();
+		testSearchAlgorithm(domain, algo, 65271, 32470, 45);
+	}	
+	
 	@Test
 	public void testRBFS() throws FileNotFoundException {
 		SearchDomain domain = createFifteenPuzzle("12");
@@ -67,6 +105,13 @@ public class TestAllBasics {
 		testSearchAlgorithm(domain, algo, 546343, 269708, 45);
 	}		
 	
+	@Test
+	public void testParallelIDAstar() throws FileNotFoundException {
+		SearchDomain domain = createFifteenPuzzle("12");
+		SearchAlgorithm algo = new ParallelIDAstar(4);
+		testSearchAlgorithm(domain, algo, 45);
+	}
+	
 	@Test
 	public void testWAstar() throws FileNotFoundException {
 		SearchDomain domain = createFifteenPuzzle("82");
@@ -88,12 +133,65 @@ public class TestAllBasics {
 		testSearchAlgorithm(domain, algo, 301098, 148421, 45);
 	}	
 	
+	@Test
+	public void testAstarWidePancakes() {
+		SearchDomain domain = createPancakes(
+				"22 13 9 21 18 10 4 12 6 3 23 5 15 2 17 1 7 14 0 16 20 11 8 19");
+		testSearchAlgorithm(domain, new Astar(), 24);
+		testSearchAlgorithm(domain, new IDAstar(), 24);
+	}
+	
+	@Test
+	public void testEESWidePancakes() {
+		SearchDomain domain = createPancakes(
+				"22 13 9 21 18 10 4 12 6 3 23 5 15 2 17 1 7 14 0 16 20 11 8 19");
+		testSearchAlgorithm(domain, new EES(2), 28);
+	}
+	
+	@Test
+	public void testMM() throws FileNotFoundException {
+		testSearchAlgorithm(createFifteenPuzzle("12"), new MM(), 45);
+		testSearchAlgorithm(createPancakes("5 10 2 13 0 8 3 12 7 1 11 4 9 6"), 
+				new MM(), 15);
+	}
+	
+	@Test
+	public void testHDAstar() throws FileNotFoundException {
+		SearchDomain domain = createFifteenPuzzle("12");
+		SearchAlgorithm algo = new HDAstar(4);
+		testSearchAlgorithm(domain, algo, 45);
+	}
+	
+	@Test
+	public void testIDAstarPDB() throws IOException {
+		int[][] partition = {{1,2,3}, {4,5,6}, {7,8,9}, {10,11,12}, {13,14,15}};
+		File dir = Files.createTempDirectory("pdb").toFile();
+		AdditivePatternDatabase pdb = 
+				AdditivePatternDatabase.open(dir, 4, 4, partition);
+		InputStream is = new FileInputStream(new File("input/fifteenpuzzle/korf100/12"));
+		SearchDomain domain = new FifteenPuzzle(is, pdb);
+		SearchResult result = new IDAstar().search(domain);
+		Solution sol = result.getSolutions().get(0);
+		Assert.assertTrue(sol.getCost() == 45);
+		Assert.assertTrue(sol.getLength() == 46);
+		// the pattern database dominates the Manhattan distance
+		Assert.assertTrue(result.getExpanded() < 269708);
+		for (File f : dir.listFiles()) f.delete();
+		dir.delete();
+	}
+	
 	public SearchDomain createFifteenPuzzle(String instance) throws FileNotFoundException {
 		InputStream is = new FileInputStream(new File("input/fifteenpuzzle/korf100/"+instance));
 		FifteenPuzzle puzzle = new FifteenPuzzle(is);
 		return puzzle;
 	}
 	
+	public SearchDomain createPancakes(String cakes) {
+		String instance = cakes.split(" ").length+"\n"+cakes+"\n";
+		return new Pancakes(new ByteArrayInputStream(instance.getBytes()), 
+				Pancakes.COST_FUNCTION.UNIT);
+	}
+	
 	public void testSearchAlgorithm(SearchDomain domain, SearchAlgorithm algo, 
 			long generated, long expanded, double cost) {
 		SearchResult result = algo.search(domain);
@@ -108,6 +206,16 @@ public class TestAllBasics {
 		Assert.assertTrue(sol.getLength() == cost+1);
 	}
 	
+	public void testSearchAlgorithm(SearchDomain domain, SearchAlgorithm algo, 
+			double cost) {
+		SearchResult result = algo.search(domain);
+		Solution sol = result.getSolutions().get(0);
+		Assert.assertTrue(result.getExpanded() > 0);
+		Assert.assertTrue(result.getGenerated() >= result.getExpanded());
+		Assert.assertTrue(sol.getCost() == cost);
+		Assert.assertTrue(sol.getLength() == cost+1);
+	}
+	
 	public static void main(String[] args) throws FileNotFoundException {
 		TestAllBasics test = new TestAllBasics();
 		test.testEES();
@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.test.algorithms;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cs4j.core.LimitedSearchAlgorithm;
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchDomain.Operator;
+import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchLimits;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.SearchResult.Status;
+import org.cs4j.core.algorithms.Astar;
+import org.cs4j.core.algorithms.EES;
+import org.cs4j.core.algorithms.HDAstar;
+import org.cs4j.core.algorithms.IDAstar;
+import org.cs4j.core.algorithms.ParallelEES;
+import org.cs4j.core.algorithms.RBFS;
+import org.cs4j.core.algorithms.WAstar;
+import org.cs4j.core.algorithms.WIDAstar;
+import org.cs4j.core.algorithms.WRBFS;
+import org.cs4j.core.domains.FifteenPuzzle;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSearchLimits {
+
+	private TestAllBasics basics = new TestAllBasics();
+
+	@Test
+	public void testExpansionLimit() throws FileNotFoundException {
+		LimitedSearchAlgorithm[] algos = {new Astar(), new WAstar(2), 
+				new IDAstar(), new WIDAstar(2), new RBFS(), new WRBFS(2), new EES(2)};
+		for (LimitedSearchAlgorithm algo : algos) {
+			SearchDomain domain = basics.createFifteenPuzzle("12");
+			SearchLimits limits = new SearchLimits();
+			limits.setMaxExpanded(1000);
+			SearchResult result = algo.search(domain, limits);
+			Assert.assertEquals(Status.EXPANSION_LIMIT, result.getStatus());
+			Assert.assertTrue(result.getSolutions().isEmpty());
+			Assert.assertEquals(1000, result.getExpanded(), 0);
+		}
+	}
+
+	@Test
+	public void testSolved() throws FileNotFoundException {
+		SearchDomain domain = basics.createFifteenPuzzle("12");
+		SearchLimits limits = new SearchLimits();
+		limits.setMaxExpanded(1000000);
+		limits.setTimeLimit(1, TimeUnit.MINUTES);
+		SearchResult result = new IDAstar().search(domain, limits);
+		Assert.assertEquals(Status.SOLVED, result.getStatus());
+		Assert.assertEquals(45, result.getSolutions().get(0).getCost(), 0);
+		Assert.assertEquals(Status.SOLVED, new Astar().search(domain).getStatus());
+	}
+
+	@Test
+	public void testCancel() throws FileNotFoundException {
+		SearchDomain domain = basics.createFifteenPuzzle("12");
+		SearchLimits limits = new SearchLimits();
+		limits.cancel();
+		SearchResult result = new RBFS().search(domain, limits);
+		Assert.assertEquals(Status.CANCELLED, result.getStatus());
+		Assert.assertTrue(result.getExpanded() <= 1024);
+		result = new ParallelEES(2, 2).search(domain, limits);
+		Assert.assertEquals(Status.CANCELLED, result.getStatus());
+	}
+
+	@Test
+	public void testTimeLimitUnsolvable() {
+		SearchDomain domain = createUnsolvable();
+		SearchLimits limits = new SearchLimits();
+		limits.setTimeLimit(100, TimeUnit.MILLISECONDS);
+		SearchResult result = new IDAstar().search(domain, limits);
+		Assert.assertEquals(Status.TIME_LIMIT, result.getStatus());
+		Assert.assertTrue(result.getSolutions().isEmpty());
+		Assert.assertTrue(result.getWallTimeMillis() < 1000);
+	}
+
+	@Test
+	public void testInterruptHDAstar() throws InterruptedException {
+		final SearchDomain domain = createUnsolvable();
+		final SearchResult[] result = new SearchResult[1];
+		Thread searcher = new Thread() {
+			@Override
+			public void run() {
+				result[0] = new HDAstar(2).search(domain);
+			}
+		};
+		searcher.start();
+		Thread.sleep(200);
+		searcher.interrupt();
+		searcher.join(10000);
+		Assert.assertFalse(searcher.isAlive());
+		Assert.assertEquals(Status.CANCELLED, result[0].getStatus());
+		// the workers are joined before the search returns
+		for (Thread t : Thread.getAllStackTraces().keySet()) {
+			Assert.assertFalse(t.getName().startsWith("hdastar-"));
+		}
+	}
+
+	@Test
+	public void testWorkerFailureHDAstar() throws InterruptedException {
+		final SearchDomain puzzle = createUnsolvable();
+		final AtomicInteger unpacked = new AtomicInteger();
+		// fails in a worker once the search is under way
+		final SearchDomain domain = new SearchDomain() {
+			@Override
+			public State initialState() {
+				return puzzle.initialState();
+			}
+			@Override
+			public boolean isGoal(State state) {
+				return puzzle.isGoal(state);
+			}
+			@Override
+			public int getNumOperators(State state) {
+				return puzzle.getNumOperators(state);
+			}
+			@Override
+			public Operator getOperator(State state, int index) {
+				return puzzle.getOperator(state, index);
+			}
+			@Override
+			public State applyOperator(State state, Operator op) {
+				return puzzle.applyOperator(state, op);
+			}
+			@Override
+			public State copy(State state) {
+				return puzzle.copy(state);
+			}
+			@Override
+			public long pack(State state) {
+				return puzzle.pack(state);
+			}
+			@Override
+			public State unpack(long packed) {
+				if (unpacked.incrementAndGet() == 1000)
+					throw new OutOfMemoryError("test");
+				return puzzle.unpack(packed);
+			}
+		};
+		final Throwable[] thrown = new Throwable[1];
+		Thread searcher = new Thread() {
+			@Override
+			public void run() {
+				try {
+					new HDAstar(2).search(domain);
+				} catch (Throwable e) {
+					thrown[0] = e;
+				}
+			}
+		};
+		searcher.start();
+		searcher.join(10000);
+		Assert.assertFalse(searcher.isAlive());
+		Assert.assertTrue(thrown[0] instanceof OutOfMemoryError);
+		for (Thread t : Thread.getAllStackTraces().keySet()) {
+			Assert.assertFalse(t.getName().startsWith("hdastar-"));
+		}
+	}
+
+	private SearchDomain createUnsolvable() {
+		// swapping two tiles makes the puzzle unsolvable
+		String instance = "4 4\nstarting positions for each tile:\n"+
+				"0\n2\n1\n3\n4\n5\n6\n7\n8\n9\n10\n11\n12\n13\n14\n15\n"+
+				"goal positions:\n"+
+				"0\n1\n2\n3\n4\n5\n6\n7\n8\n9\n10\n11\n12\n13\n14\n15\n";
+		return new FifteenPuzzle(new ByteArrayInputStream(instance.getBytes()));
+	}
+
+}
@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.test.algorithms;
+
+import java.io.FileNotFoundException;
+
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.SearchMetrics;
+import org.cs4j.core.SearchMetrics.Phase;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.algorithms.Astar;
+import org.cs4j.core.algorithms.EES;
+import org.cs4j.core.algorithms.IDAstar;
+import org.cs4j.core.collections.LongNodeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSearchMetrics {
+
+	@Test
+	public void testRecord() throws InterruptedException {
+		SearchMetrics metrics = new SearchMetrics();
+		Thread.sleep(2);
+		metrics.lap(Phase.SELECT);
+		metrics.lap(Phase.INSERT);
+		Assert.assertTrue(metrics.getPhaseNanos(Phase.SELECT) >= 2000000L);
+		Assert.assertTrue(metrics.getPhaseNanos(Phase.SELECT) > 
+				metrics.getPhaseNanos(Phase.INSERT));
+		Assert.assertEquals(0L, metrics.getPhaseNanos(Phase.GENERATE));
+		
+		metrics.openSize(10);
+		metrics.openSize(5);
+		Assert.assertEquals(10, metrics.getMaxOpenSize());
+		
+		metrics.expanded(2.5, 1);
+		metrics.expanded(2, 2);
+		metrics.expanded(4, 3);
+		long[] layers = metrics.getExpandedByLayer();
+		Assert.assertEquals(5, layers.length);
+		Assert.assertEquals(2L, layers[2]);
+		Assert.assertEquals(1L, layers[4]);
+		
+		LongNodeMap<String> closed = new LongNodeMap<>(16);
+		for (long i = 0; i < 12; i++)
+			closed.put(i, "node");
+		metrics.closed(closed);
+		Assert.assertEquals(12, metrics.getClosedSize());
+		Assert.assertEquals(12.0 / closed.capacity(), 
+				metrics.getClosedLoadFactor(), 0);
+		Assert.assertTrue(metrics.getMeanProbeLength() >= 1);
+		Assert.assertTrue(metrics.getMaxProbeLength() >= 1);
+	}
+
+	@Test
+	public void testSearch() throws FileNotFoundException {
+		SearchDomain domain = new TestAllBasics().createFifteenPuzzle("12");
+		SearchResult result = new Astar().search(domain);
+		if (!SearchMetrics.ENABLED) {
+			Assert.assertNull(result.getMetrics());
+			return;
+		}
+		SearchMetrics metrics = checkExpanded(result);
+		Assert.assertTrue(metrics.getMaxOpenSize() > 0);
+		Assert.assertTrue(metrics.getClosedSize() > 0);
+	}
+
+	@Test
+	public void testSearchEES() throws FileNotFoundException {
+		SearchDomain domain = new TestAllBasics().createFifteenPuzzle("12");
+		SearchResult result = new EES(2).search(domain);
+		if (!SearchMetrics.ENABLED) {
+			Assert.assertNull(result.getMetrics());
+			return;
+		}
+		SearchMetrics metrics = checkExpanded(result);
+		Assert.assertTrue(metrics.getMaxOpenSize() > 0);
+		Assert.assertTrue(metrics.getClosedSize() > 0);
+		Assert.assertTrue(metrics.getPhaseNanos(Phase.SELECT) > 0);
+		Assert.assertTrue(metrics.getPhaseNanos(Phase.DUPLICATES) > 0);
+	}
+
+	@Test
+	public void testSearchIDAstar() throws FileNotFoundException {
+		SearchDomain domain = new TestAllBasics().createFifteenPuzzle("12");
+		SearchResult result = new IDAstar().search(domain);
+		if (!SearchMetrics.ENABLED) {
+			Assert.assertNull(result.getMetrics());
+			return;
+		}
+		SearchMetrics metrics = checkExpanded(result);
+		Assert.assertTrue(metrics.getPhaseNanos(Phase.GENERATE) > 0);
+		// the iterations grow the f bound to the solution cost
+		long[] layers = metrics.getExpandedByLayer();
+		Assert.assertTrue(layers.length > 45);
+	}
+
+	/*
+	 * Checks that the expansions by layer add up to the expanded nodes.
+	 */
+	private SearchMetrics checkExpanded(SearchResult result) {
+		SearchMetrics metrics = result.getMetrics();
+		Assert.assertNotNull(metrics);
+		long expanded = 0;
+		for (long n : metrics.getExpandedByLayer())
+			expanded += n;
+		Assert.assertEquals(result.getExpanded(), expanded, 0);
+		return metrics;
+	}
+
+}
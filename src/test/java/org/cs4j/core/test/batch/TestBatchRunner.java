@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.test.batch;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.cs4j.core.SearchAlgorithm;
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.algorithms.HDAstar;
+import org.cs4j.core.algorithms.IDAstar;
+import org.cs4j.core.batch.AlgorithmFactory;
+import org.cs4j.core.batch.BatchResult;
+import org.cs4j.core.batch.BatchRunner;
+import org.cs4j.core.batch.DomainFactory;
+import org.cs4j.core.batch.ResultWriter;
+import org.cs4j.core.domains.FifteenPuzzle;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBatchRunner {
+
+	private DomainFactory puzzles = new DomainFactory() {
+		@Override
+		public SearchDomain create(File instance) throws IOException {
+			try (InputStream is = new FileInputStream(instance)) {
+				return new FifteenPuzzle(is);
+			}
+		}
+	};
+
+	@Test
+	public void testRun() throws IOException, InterruptedException {
+		BatchRunner runner = new BatchRunner(puzzles, new AlgorithmFactory() {
+			@Override
+			public SearchAlgorithm create() {
+				return new IDAstar();
+			}
+		}, 2);
+		runner.setMemoryLimit(64);
+		
+		String dir = "input/fifteenpuzzle/korf100/";
+		List<File> instances = Arrays.asList(new File(dir+"12"), 
+				new File(dir+"55"), new File(dir+"missing"));
+		StringWriter out = new StringWriter();
+		List<BatchResult> results;
+		try (ResultWriter writer = new ResultWriter(out, ResultWriter.Format.JSONL)) {
+			results = runner.run(instances, writer);
+		}
+		
+		Assert.assertEquals(3, results.size());
+		Assert.assertEquals(3, out.toString().split("\n").length);
+		for (BatchResult r : results) {
+			String name = r.getInstance().getName();
+			if (name.equals("missing")) {
+				Assert.assertEquals(BatchResult.Status.ERROR, r.getStatus());
+				continue;
+			}
+			Assert.assertEquals(BatchResult.Status.SOLVED, r.getStatus());
+			Assert.assertEquals("IDAstar", r.getAlgorithm());
+			Assert.assertEquals(name.equals("12") ? 45 : 41, r.getCost(), 0);
+			Assert.assertTrue(r.getExpanded() > 0);
+		}
+	}
+
+	@Test
+	public void testTimeout() throws IOException, InterruptedException {
+		// swapping two tiles makes the puzzle unsolvable
+		String unsolvable = "4 4\nstarting positions for each tile:\n"+
+				"0\n2\n1\n3\n4\n5\n6\n7\n8\n9\n10\n11\n12\n13\n14\n15\n"+
+				"goal positions:\n"+
+				"0\n1\n2\n3\n4\n5\n6\n7\n8\n9\n10\n11\n12\n13\n14\n15\n";
+		File instance = File.createTempFile("unsolvable", ".txt");
+		instance.deleteOnExit();
+		Files.write(instance.toPath(), unsolvable.getBytes(StandardCharsets.US_ASCII));
+		
+		// IDAstar honors the limit, HDAstar is interrupted by the runner
+		AlgorithmFactory[] factories = {
+				new AlgorithmFactory() {
+					@Override
+					public SearchAlgorithm create() {
+						return new IDAstar();
+					}
+				}, 
+				new AlgorithmFactory() {
+					@Override
+					public SearchAlgorithm create() {
+						return new HDAstar(2);
+					}
+				}};
+		for (AlgorithmFactory factory : factories) {
+			BatchRunner runner = new BatchRunner(puzzles, factory, 1);
+			runner.setTimeLimit(200, TimeUnit.MILLISECONDS);
+			List<BatchResult> results = runner.run(Arrays.asList(instance), null);
+			Assert.assertEquals(1, results.size());
+			BatchResult r = results.get(0);
+			Assert.assertEquals(BatchResult.Status.TIMEOUT, r.getStatus());
+			Assert.assertTrue(r.getWallTimeMillis() < 5000);
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.test.collections;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.cs4j.core.collections.BinHeap;
+import org.cs4j.core.collections.BucketHeap.BucketHeapElement;
+import org.cs4j.core.collections.SearchQueue;
+
+import org.junit.Assert;
+
+/*
+ * Checks a search queue against a BinHeap with a random sequence of adds,
+ * updates, removes and polls.  The queue under test must use key 0.
+ */
+final class HeapChecker {
+
+	/*
+	 * Generates the ranks of the elements for the queue under test.
+	 */
+	interface Ranks {
+		Element create(Random random);
+		void update(Element e, Random random);
+	}
+
+	private HeapChecker() {
+	}
+
+	static void check(SearchQueue<Element> heap, Ranks ranks, long seed) {
+		BinHeap<Element> expected = new BinHeap<>(new ElementComparator(), 1);
+		List<Element> queued = new ArrayList<>();
+		Random random = new Random(seed);
+		for (int i = 0; i < 100000; i++) {
+			int op = random.nextInt(8);
+			if (op < 3) {
+				Element e = ranks.create(random);
+				heap.add(e);
+				expected.add(e);
+				queued.add(e);
+			}
+			else if (op < 5) {
+				Element u = pick(queued, random);
+				if (u == null)
+					continue;
+				if (op == 3) {
+					ranks.update(u, random);
+					heap.update(u);
+					expected.update(u);
+				}
+				else {
+					heap.remove(u);
+					expected.remove(u);
+					Assert.assertEquals(-1, u.getIndex(0));
+					Assert.assertEquals(-1, u.getBinIndex(0));
+				}
+			}
+			else if (!expected.isEmpty()) {
+				Element a = heap.poll();
+				Element b = expected.poll();
+				// equal elements may come out in either order
+				Assert.assertEquals(b.f, a.f, 0);
+				Assert.assertEquals(b.g, a.g, 0);
+				Assert.assertEquals(-1, a.getIndex(0));
+				Assert.assertEquals(-1, a.getBinIndex(0));
+				if (a != b) {
+					expected.remove(a);
+					expected.add(b);
+				}
+			}
+			Assert.assertEquals(expected.size(), heap.size());
+			Assert.assertEquals(expected.isEmpty(), heap.isEmpty());
+		}
+		while (!expected.isEmpty()) {
+			Assert.assertEquals(expected.peek().f, heap.peek().f, 0);
+			Assert.assertEquals(expected.poll().f, heap.poll().f, 0);
+			Assert.assertEquals(expected.size(), heap.size());
+		}
+		Assert.assertTrue(heap.isEmpty());
+	}
+
+	/*
+	 * Returns a random element still in the heaps, or null.
+	 */
+	private static Element pick(List<Element> queued, Random random) {
+		while (!queued.isEmpty()) {
+			int k = random.nextInt(queued.size());
+			Element e = queued.get(k);
+			if (e.getIndex(0) >= 0)
+				return e;
+			queued.set(k, queued.get(queued.size()-1));
+			queued.remove(queued.size()-1);
+		}
+		return null;
+	}
+
+	static final class Element implements BucketHeapElement {
+		double f, g;
+		private final int[] index = {-1, -1};
+		private final int[] secondaryIndex = {-1, -1};
+		private final int[] binIndex = {-1, -1};
+
+		Element(double f, double g) {
+			this.f = f;
+			this.g = g;
+		}
+
+		@Override
+		public void setIndex(int key, int index) {
+			this.index[key] = index;
+		}
+
+		@Override
+		public int getIndex(int key) {
+			return index[key];
+		}
+
+		@Override
+		public void setSecondaryIndex(int key, int index) {
+			secondaryIndex[key] = index;
+		}
+
+		@Override
+		public int getSecondaryIndex(int key) {
+			return secondaryIndex[key];
+		}
+
+		@Override
+		public void setBinIndex(int key, int index) {
+			binIndex[key] = index;
+		}
+
+		@Override
+		public int getBinIndex(int key) {
+			return binIndex[key];
+		}
+
+		@Override
+		public double getRank(int level) {
+			return (level == 0) ? f : g;
+		}
+	}
+
+	/*
+	 * Orders on low f, then high g, as the bucket heaps do.
+	 */
+	private static final class ElementComparator implements Comparator<Element> {
+		@Override
+		public int compare(Element a, Element b) {
+			if (a.f < b.f) return -1;
+			if (a.f > b.f) return 1;
+			if (a.g > b.g) return -1;
+			if (a.g < b.g) return 1;
+			return 0;
+		}
+	}
+
+}
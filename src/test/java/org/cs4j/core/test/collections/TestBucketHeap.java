@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.test.collections;
+
+import java.util.Random;
+
+import org.cs4j.core.collections.BucketHeap;
+import org.cs4j.core.test.collections.HeapChecker.Element;
+
+import org.junit.Test;
+
+public class TestBucketHeap {
+
+	private static final int SIZE = 100;
+
+	@Test
+	public void testAgainstBinHeap() {
+		HeapChecker.check(new BucketHeap<Element>(SIZE, 0), new HeapChecker.Ranks() {
+			@Override
+			public Element create(Random random) {
+				// few distinct g, some beyond the initial bin count
+				return new Element(random.nextInt(SIZE), random.nextInt(10) * 20);
+			}
+			@Override
+			public void update(Element e, Random random) {
+				e.f = Math.min(SIZE-1, Math.max(0, e.f + random.nextInt(11) - 5));
+			}
+		}, 42);
+	}
+
+}
@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.test.collections;
+
+import java.util.Random;
+
+import org.cs4j.core.collections.DaryHeap;
+import org.cs4j.core.test.collections.HeapChecker.Element;
+
+import org.junit.Test;
+
+public class TestDaryHeap {
+
+	@Test
+	public void testAgainstBinHeap() {
+		for (int arity = 2; arity <= 8; arity <<= 1) {
+			HeapChecker.check(new DaryHeap<Element>(arity, 0), new HeapChecker.Ranks() {
+				@Override
+				public Element create(Random random) {
+					// few distinct ranks so that ties are broken on g
+					return new Element(random.nextInt(50), random.nextInt(10));
+				}
+				@Override
+				public void update(Element e, Random random) {
+					e.f += random.nextInt(11) - 5;
+				}
+			}, arity);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testArity() {
+		new DaryHeap<Element>(3, 0);
+	}
+
+}
@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.test.collections;
+
+import java.io.ByteArrayInputStream;
+
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.algorithms.HDAstar;
+import org.cs4j.core.collections.HeuristicCache;
+import org.cs4j.core.domains.Pancakes;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestHeuristicCache {
+
+	@Test
+	public void testPutGet() {
+		HeuristicCache cache = new HeuristicCache(64, 4);
+		double hd[] = new double[2];
+		Assert.assertFalse(cache.get(42L, hd));
+		cache.put(42L, 3.5, 2);
+		cache.put(-1L, 1, 1);
+		Assert.assertTrue(cache.get(42L, hd));
+		Assert.assertEquals(3.5, hd[0], 0);
+		Assert.assertEquals(2, hd[1], 0);
+		cache.put(42L, 4, 3);
+		Assert.assertTrue(cache.get(42L, hd));
+		Assert.assertEquals(4, hd[0], 0);
+		Assert.assertEquals(2L, cache.getHits());
+		Assert.assertEquals(1L, cache.getMisses());
+		Assert.assertEquals(0L, cache.getEvictions());
+	}
+
+	@Test
+	public void testEviction() {
+		// a single set of eight entries
+		HeuristicCache cache = new HeuristicCache(8, 1);
+		Assert.assertEquals(8, cache.capacity());
+		double hd[] = new double[2];
+		for (long key = 0; key < 8; key++) {
+			cache.put(key, key, key);
+		}
+		// give key 0 a second chance so that key 1 is evicted instead
+		Assert.assertTrue(cache.get(0L, hd));
+		cache.put(8L, 8, 8);
+		Assert.assertEquals(1L, cache.getEvictions());
+		Assert.assertTrue(cache.get(0L, hd));
+		Assert.assertFalse(cache.get(1L, hd));
+		Assert.assertTrue(cache.get(8L, hd));
+		Assert.assertEquals(8, hd[0], 0);
+		for (long key = 100; key < 1000; key++) {
+			cache.put(key, key, key);
+		}
+		int found = 0;
+		for (long key = 0; key < 1000; key++) {
+			if (cache.get(key, hd)) {
+				Assert.assertEquals(key, hd[0], 0);
+				found++;
+			}
+		}
+		Assert.assertEquals(8, found);
+	}
+
+	@Test
+	public void testRetention() {
+		// more sets per stripe than sixteen bits of a hash can address
+		HeuristicCache cache = new HeuristicCache(1 << 22, 1);
+		int capacity = cache.capacity();
+		for (long key = 0; key < capacity; key++) {
+			cache.put(key, 1, 1);
+		}
+		double hd[] = new double[2];
+		int found = 0;
+		for (long key = 0; key < capacity; key++) {
+			if (cache.get(key, hd))
+				found++;
+		}
+		// hashing one key per slot into sets of eight overflows some sets
+		Assert.assertTrue(found > 0.8 * capacity);
+		Assert.assertEquals((long)(capacity - found), cache.getEvictions());
+	}
+
+	@Test
+	public void testCachingDomain() {
+		String instance = "9\n3 7 1 8 5 0 6 2 4\n";
+		Pancakes domain = new Pancakes(
+				new ByteArrayInputStream(instance.getBytes()), Pancakes.COST_FUNCTION.UNIT);
+		SearchResult expected = new HDAstar(1).search(domain);
+		Assert.assertEquals(0L, expected.getHeuristicCacheHits());
+		domain.setHeuristicCache(new HeuristicCache(1 << 12));
+		SearchResult first = new HDAstar(1).search(domain);
+		Assert.assertTrue(first.getHeuristicCacheMisses() > 0);
+		// the second search unpacks the states cached by the first
+		SearchResult second = new HDAstar(1).search(domain);
+		Assert.assertTrue(second.getHeuristicCacheHits() > 0);
+		Assert.assertEquals(expected.getExpanded(), second.getExpanded(), 0);
+		Assert.assertEquals(expected.getSolutions().get(0).getCost(),
+				second.getSolutions().get(0).getCost(), 0);
+	}
+
+}
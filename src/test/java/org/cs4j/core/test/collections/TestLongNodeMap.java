@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.test.collections;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.cs4j.core.collections.LongNodeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLongNodeMap {
+
+	@Test
+	public void testPutGet() {
+		LongNodeMap<String> map = new LongNodeMap<>(4);
+		Assert.assertNull(map.put(0L, "zero"));
+		Assert.assertNull(map.put(-1L, "minus one"));
+		Assert.assertEquals("zero", map.put(0L, "ZERO"));
+		Assert.assertEquals("ZERO", map.get(0L));
+		Assert.assertEquals("minus one", map.get(-1L));
+		Assert.assertNull(map.get(42L));
+		Assert.assertEquals(2, map.size());
+	}
+
+	@Test
+	public void testAgainstHashMap() {
+		LongNodeMap<Long> map = new LongNodeMap<>(2);
+		Map<Long, Long> expected = new HashMap<>();
+		Random random = new Random(7);
+		for (int i = 0; i < 200000; i++) {
+			// small key space so that puts, hits and removes all collide
+			long key = random.nextInt(5000) * 0x10000L;
+			switch (random.nextInt(3)) {
+			case 0:
+				Assert.assertEquals(expected.put(key, key+i), map.put(key, key+i));
+				break;
+			case 1:
+				Assert.assertEquals(expected.remove(key), map.remove(key));
+				break;
+			default:
+				Assert.assertEquals(expected.get(key), map.get(key));
+			}
+			Assert.assertEquals(expected.size(), map.size());
+		}
+		for (Map.Entry<Long, Long> e : expected.entrySet()) {
+			Assert.assertEquals(e.getValue(), map.get(e.getKey()));
+		}
+		map.clear();
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertNull(map.get(expected.keySet().iterator().next()));
+	}
+
+	@Test
+	public void testProbeLength() {
+		LongNodeMap<String> map = new LongNodeMap<>(4);
+		Assert.assertEquals(0, map.meanProbeLength(), 0);
+		Assert.assertEquals(0, map.maxProbeLength());
+		// keys with the same home slot form one cluster
+		int home = LongNodeMap.hash(0L) & (map.capacity() - 1);
+		int n = 0;
+		for (long key = 0; n < 3; key++) {
+			if ((LongNodeMap.hash(key) & (map.capacity() - 1)) == home) {
+				map.put(key, "key");
+				n++;
+			}
+		}
+		Assert.assertEquals(2, map.meanProbeLength(), 0);
+		Assert.assertEquals(3, map.maxProbeLength());
+	}
+
+}
@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.test.collections;
+
+import java.util.Random;
+
+import org.cs4j.core.collections.QuantizedBucketHeap;
+import org.cs4j.core.test.collections.HeapChecker.Element;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestQuantizedBucketHeap {
+
+	@Test
+	public void testAgainstBinHeap() {
+		HeapChecker.check(new QuantizedBucketHeap<Element>(0), new HeapChecker.Ranks() {
+			@Override
+			public Element create(Random random) {
+				// f in tenths, which quantize exactly, and few distinct g
+				return new Element(random.nextInt(500) * 0.1, random.nextInt(10));
+			}
+			@Override
+			public void update(Element e, Random random) {
+				long tenths = Math.round(e.f * 10);
+				e.f = Math.max(0, tenths + random.nextInt(21) - 10) * 0.1;
+			}
+		}, 42);
+	}
+
+	@Test
+	public void testRebase() {
+		QuantizedBucketHeap<Element> heap = new QuantizedBucketHeap<>(0);
+		heap.add(new Element(500, 0));
+		heap.add(new Element(1, 0));
+		heap.add(new Element(7000, 0));
+		Assert.assertEquals(1.0, heap.poll().f, 0);
+		Assert.assertEquals(500.0, heap.poll().f, 0);
+		Assert.assertEquals(7000.0, heap.poll().f, 0);
+		Assert.assertTrue(heap.isEmpty());
+	}
+
+}
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.test.domains;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.cs4j.core.PackedSearchDomain;
+import org.cs4j.core.PackedSearchDomain.Successors;
+import org.cs4j.core.SearchDomain.Operator;
+import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.domains.FifteenPuzzle;
+import org.cs4j.core.domains.Pancakes;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPackedSearchDomain {
+
+	@Test
+	public void testFifteenPuzzle() throws FileNotFoundException {
+		for (FifteenPuzzle.COST_FUNCTION cost : FifteenPuzzle.COST_FUNCTION.values()) {
+			FileInputStream is = new FileInputStream(
+					new File("input/fifteenpuzzle/korf100/12"));
+			testRandomWalk(new FifteenPuzzle(is, cost));
+		}
+	}
+
+	@Test
+	public void testPancakes() {
+		for (Pancakes.COST_FUNCTION cost : Pancakes.COST_FUNCTION.values()) {
+			String instance = "14\n6 11 0 13 2 9 4 12 1 7 3 10 8 5\n";
+			ByteArrayInputStream is = new ByteArrayInputStream(instance.getBytes());
+			testRandomWalk(new Pancakes(is, cost));
+		}
+	}
+
+	@Test
+	public void testRankedPancakes() {
+		for (Pancakes.COST_FUNCTION cost : Pancakes.COST_FUNCTION.values()) {
+			String instance = "18\n4 1 11 3 12 13 6 16 5 7 9 10 17 14 0 8 15 2\n";
+			ByteArrayInputStream is = new ByteArrayInputStream(instance.getBytes());
+			testRandomWalk(new Pancakes(is, cost));
+		}
+	}
+
+	@Test
+	public void testWidePancakes() {
+		String instance = 
+				"24\n22 13 9 21 18 10 4 12 6 3 23 5 15 2 17 1 7 14 0 16 20 11 8 19\n";
+		ByteArrayInputStream is = new ByteArrayInputStream(instance.getBytes());
+		Pancakes domain = new Pancakes(is, Pancakes.COST_FUNCTION.HEAVY);
+		Assert.assertEquals(3, domain.getPackedWords());
+		State state = domain.initialState();
+		long words[] = new long[domain.getPackedWords()];
+		domain.pack(state, words);
+		State unpacked = domain.unpack(words);
+		long copy[] = new long[words.length];
+		domain.pack(unpacked, copy);
+		Assert.assertTrue(Arrays.equals(words, copy));
+		Assert.assertEquals(state.getH(), unpacked.getH(), 0);
+		Assert.assertEquals(state.getD(), unpacked.getD(), 0);
+	}
+
+	/*
+	 * Checks that the packed successors match the unpacked ones along a
+	 * random walk.
+	 */
+	private void testRandomWalk(PackedSearchDomain domain) {
+		Random random = new Random(7);
+		Successors successors = new Successors();
+		State state = domain.initialState();
+		for (int step = 0; step < 1000; step++) {
+			long packed = domain.pack(state);
+			Assert.assertEquals(domain.isGoal(state), domain.isGoal(packed));
+			int n = domain.expand(packed, successors);
+			Assert.assertEquals(domain.getNumOperators(state), n);
+			for (int i = 0; i < n; i++) {
+				Operator op = domain.getOperator(state, i);
+				State child = domain.applyOperator(state, op);
+				Assert.assertEquals(domain.pack(child), successors.getPacked(i));
+				Assert.assertEquals(op.getCost(state), successors.getCost(i), 0);
+				Assert.assertEquals(child.getH() - state.getH(),
+						successors.getDeltaH(i), 1e-9);
+				Assert.assertEquals(child.getD() - state.getD(),
+						successors.getDeltaD(i), 1e-9);
+				Assert.assertSame(op, successors.getOperator(i));
+				Assert.assertSame(op.reverse(state),
+						successors.getReverseOperator(i));
+				// incremental estimates match those computed from scratch
+				State unpacked = domain.unpack(successors.getPacked(i));
+				Assert.assertEquals(unpacked.getH(), child.getH(), 1e-9);
+				Assert.assertEquals(unpacked.getD(), child.getD(), 1e-9);
+			}
+			state = domain.applyOperator(state,
+					domain.getOperator(state, random.nextInt(n)));
+		}
+	}
+
+}
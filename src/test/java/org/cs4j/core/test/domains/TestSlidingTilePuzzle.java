@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.test.domains;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.cs4j.core.SearchDomain.Operator;
+import org.cs4j.core.SearchDomain.State;
+import org.cs4j.core.SearchResult;
+import org.cs4j.core.algorithms.Astar;
+import org.cs4j.core.algorithms.IDAstar;
+import org.cs4j.core.domains.SlidingTilePuzzle;
+import org.cs4j.core.domains.SlidingTilePuzzle.HEURISTIC;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSlidingTilePuzzle {
+
+	@Test
+	public void testFifteenPuzzle() throws FileNotFoundException {
+		// same operator order and heuristic as FifteenPuzzle
+		SlidingTilePuzzle puzzle = new SlidingTilePuzzle(new FileInputStream(
+				new File("input/fifteenpuzzle/korf100/12")));
+		Assert.assertEquals(1, puzzle.getPackedWords());
+		SearchResult result = new Astar().search(puzzle);
+		Assert.assertEquals(32470, result.getExpanded(), 0);
+		Assert.assertEquals(45, result.getSolutions().get(0).getCost(), 0);
+		
+		puzzle = new SlidingTilePuzzle(new FileInputStream(
+				new File("input/fifteenpuzzle/korf100/12")), HEURISTIC.LINEAR_CONFLICT);
+		SearchResult lc = new IDAstar().search(puzzle);
+		Assert.assertEquals(45, lc.getSolutions().get(0).getCost(), 0);
+		Assert.assertTrue(lc.getExpanded() < 269708);
+	}
+
+	@Test
+	public void testTwentyFourPuzzle() {
+		for (HEURISTIC heuristic : HEURISTIC.values()) {
+			SlidingTilePuzzle puzzle = create(5, 5, 60, heuristic);
+			Assert.assertEquals(2, puzzle.getPackedWords());
+			testRandomWalk(puzzle);
+			double cost = new IDAstar().search(puzzle).getSolutions().get(0).getCost();
+			Assert.assertEquals(cost, 
+					new Astar().search(puzzle).getSolutions().get(0).getCost(), 0);
+		}
+	}
+
+	@Test
+	public void testRectangular() {
+		for (HEURISTIC heuristic : HEURISTIC.values()) {
+			SlidingTilePuzzle puzzle = create(3, 4, 40, heuristic);
+			Assert.assertEquals(1, puzzle.getPackedWords());
+			testRandomWalk(puzzle);
+			testRandomWalk(create(7, 3, 40, heuristic));
+			testRandomWalk(create(3, 3, 40, heuristic));
+		}
+	}
+
+	/*
+	 * Creates a board by walking the blank randomly away from the goal.
+	 */
+	private SlidingTilePuzzle create(int width, int height, int steps,
+			HEURISTIC heuristic) {
+		int tiles[] = new int[width * height];
+		for (int i = 0; i < tiles.length; i++) {
+			tiles[i] = i;
+		}
+		Random random = new Random(width * 31 + height);
+		int blank = 0;
+		for (int i = 0; i < steps; i++) {
+			int moves[] = {blank - width, blank - 1, blank + 1, blank + width};
+			int m = moves[random.nextInt(4)];
+			if (m < 0 || m >= tiles.length || 
+					(m % width != blank % width && m / width != blank / width))
+				continue;
+			tiles[blank] = tiles[m];
+			tiles[m] = 0;
+			blank = m;
+		}
+		int pos[] = new int[tiles.length];
+		for (int i = 0; i < tiles.length; i++) {
+			pos[tiles[i]] = i;
+		}
+		StringBuilder sb = new StringBuilder(width+" "+height+"\n");
+		sb.append("starting positions for each tile:\n");
+		for (int t = 0; t < tiles.length; t++)
+			sb.append(pos[t]).append('\n');
+		sb.append("goal positions:\n");
+		for (int t = 0; t < tiles.length; t++)
+			sb.append(t).append('\n');
+		return new SlidingTilePuzzle(
+				new ByteArrayInputStream(sb.toString().getBytes()), heuristic);
+	}
+
+	/*
+	 * Checks the incremental heuristic and the packing along a random walk,
+	 * applying and undoing every operator in place on the way.
+	 */
+	private void testRandomWalk(SlidingTilePuzzle puzzle) {
+		Random random = new Random(7);
+		long words[] = new long[puzzle.getPackedWords()];
+		long copy[] = new long[words.length];
+		State state = puzzle.initialState();
+		for (int step = 0; step < 500; step++) {
+			puzzle.pack(state, words);
+			State unpacked = puzzle.unpack(words);
+			Assert.assertEquals(unpacked.getH(), state.getH(), 0);
+			Assert.assertTrue(state.getH() >= 0);
+			puzzle.pack(unpacked, copy);
+			Assert.assertTrue(Arrays.equals(words, copy));
+			int n = puzzle.getNumOperators(state);
+			for (int i = 0; i < n; i++) {
+				Operator op = puzzle.getOperator(state, i);
+				State child = puzzle.applyOperator(state, op);
+				int undo = puzzle.apply(state, op);
+				Assert.assertEquals(child.getH(), state.getH(), 0);
+				puzzle.undo(state, undo);
+				Assert.assertEquals(unpacked.getH(), state.getH(), 0);
+			}
+			state = puzzle.applyOperator(state,
+					puzzle.getOperator(state, random.nextInt(n)));
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cs4j.core.test.jfr;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.cs4j.core.SearchDomain;
+import org.cs4j.core.algorithms.Astar;
+import org.cs4j.core.algorithms.EES;
+import org.cs4j.core.algorithms.IDAstar;
+import org.cs4j.core.jfr.SearchEvents;
+import org.cs4j.core.test.algorithms.TestAllBasics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSearchEvents {
+
+	@Test
+	public void testRecording() throws IOException {
+		Assert.assertTrue(SearchEvents.ENABLED);
+		File file = File.createTempFile("cs4j", ".jfr");
+		try (Recording recording = new Recording()) {
+			for (String name : new String[] {"SearchStarted", "SearchFinished", 
+					"Iteration", "Layer", "HeapResize"}) {
+				recording.enable("cs4j."+name);
+			}
+			// record every focal update, not only the slow ones
+			recording.enable("cs4j.FocalUpdate").withThreshold(Duration.ZERO);
+			recording.start();
+			SearchDomain domain = new TestAllBasics().createFifteenPuzzle("12");
+			new Astar().search(domain);
+			new IDAstar().search(domain);
+			new EES(2).search(domain);
+			recording.stop();
+			recording.dump(file.toPath());
+		}
+		
+		Map<String, Integer> counts = new HashMap<>();
+		long expanded = 0;
+		for (RecordedEvent e : RecordingFile.readAllEvents(file.toPath())) {
+			String name = e.getEventType().getName();
+			Integer n = counts.get(name);
+			counts.put(name, (n == null) ? 1 : n+1);
+			if (name.equals("cs4j.Layer"))
+				expanded += e.getLong("expanded");
+			if (name.equals("cs4j.FocalUpdate"))
+				Assert.assertTrue(e.getInt("sizeAfter") >= 0);
+		}
+		file.delete();
+		
+		Assert.assertEquals(Integer.valueOf(3), counts.get("cs4j.SearchStarted"));
+		Assert.assertEquals(Integer.valueOf(3), counts.get("cs4j.SearchFinished"));
+		// f goes from 35 to 45 in steps of 2
+		Assert.assertEquals(Integer.valueOf(6), counts.get("cs4j.Layer"));
+		Assert.assertEquals(Integer.valueOf(6), counts.get("cs4j.Iteration"));
+		Assert.assertTrue(counts.get("cs4j.HeapResize") > 0);
+		Assert.assertTrue(counts.get("cs4j.FocalUpdate") > 0);
+		Assert.assertEquals(32470L, expanded);
+	}
+
+}